@@ -0,0 +1,70 @@
+package ru.practicum.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.tracker.history.ConcurrentHistoryManager;
+import ru.practicum.tracker.history.HistoryManager;
+import ru.practicum.tracker.history.InMemoryHistoryManager;
+import ru.practicum.tracker.history.SynchronizedHistoryManager;
+import ru.practicum.tracker.model.Task;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность просмотров из нескольких потоков: история под общим монитором
+ * ({@link SynchronizedHistoryManager} над {@link InMemoryHistoryManager}, как раньше
+ * в ConcurrentTaskManager) против {@link ConcurrentHistoryManager}.
+ * Масштабирование видно при сравнении views1, views4 и viewsMax (по потоку на ядро).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentHistoryBenchmark {
+
+    @Param({"SYNCHRONIZED", "CONCURRENT"})
+    public String implementation;
+
+    @Param({"10000"})
+    public int tasksCount;
+
+    private HistoryManager history;
+    private Task[] tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = implementation.equals("CONCURRENT")
+                ? new ConcurrentHistoryManager()
+                : new SynchronizedHistoryManager(new InMemoryHistoryManager());
+        tasks = new Task[tasksCount];
+        for (int i = 0; i < tasksCount; i++) {
+            tasks[i] = new Task("Task " + i, "Benchmark task");
+            tasks[i].setId(i + 1);
+            history.add(tasks[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void views1() {
+        view();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void views4() {
+        view();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void viewsMax() {
+        view();
+    }
+
+    private void view() {
+        history.add(tasks[ThreadLocalRandom.current().nextInt(tasksCount)]);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.tracker.model.*;
+import ru.practicum.tracker.service.CsvRecordCodec;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение {@link CsvRecordCodec} с прежней реализацией FileBackedTaskManager
+ * ({@code String.format} при записи, {@code split}/{@code trim}/{@code valueOf} при чтении).
+ * Аллокации на запись видны с {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CsvCodecBenchmark {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final CsvRecordCodec codec = new CsvRecordCodec();
+    private final StringBuilder sink = new StringBuilder(256);
+    private Subtask subtask;
+    private String line;
+
+    @Setup
+    public void setUp() {
+        subtask = new Subtask("Подготовить отчёт", "Собрать данные за квартал", TaskStatus.IN_PROGRESS, 42,
+                Duration.ofMinutes(90), LocalDateTime.of(2025, 6, 8, 10, 30));
+        subtask.setId(1_000_001);
+        line = codec.format(subtask).toString();
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        return legacyToString(subtask);
+    }
+
+    @Benchmark
+    public int codecFormat() {
+        sink.setLength(0);
+        sink.append(codec.format(subtask));
+        return sink.length();
+    }
+
+    @Benchmark
+    public void legacyParse(Blackhole blackhole) {
+        blackhole.consume(legacyFromString(line));
+    }
+
+    @Benchmark
+    public void codecParse(Blackhole blackhole) {
+        blackhole.consume(codec.parse(line));
+    }
+
+    // Копия прежнего FileBackedTaskManager.toString(Task)
+    private static String legacyToString(Task task) {
+        String duration = task.getDuration() != null ? String.valueOf(task.getDuration().toMinutes()) : "";
+        String startTime = task.getStartTime() != null ? task.getStartTime().format(FORMATTER) : "";
+        String epicId = task instanceof Subtask ? String.valueOf(((Subtask) task).getEpicId()) : "";
+        return String.format("%d,%s,%s,%s,%s,%s,%s,%s",
+                task.getId(), task.getType(), task.getName(), task.getStatus(), task.getDescription(),
+                duration, startTime, epicId);
+    }
+
+    // Копия прежнего FileBackedTaskManager.fromString(String) без диагностики
+    private static Task legacyFromString(String line) {
+        String[] parts = line.split(",");
+        int id = Integer.parseInt(parts[0].trim());
+        TaskType type = TaskType.valueOf(parts[1].trim());
+        String name = parts[2].trim();
+        TaskStatus status = TaskStatus.valueOf(parts[3].trim());
+        String description = parts[4].trim();
+        Duration duration = parts[5].trim().isEmpty() ? null : Duration.ofMinutes(Long.parseLong(parts[5].trim()));
+        LocalDateTime startTime = parts[6].trim().isEmpty() ? null : LocalDateTime.parse(parts[6].trim(), FORMATTER);
+        Task task = switch (type) {
+            case TASK -> new Task(name, description, status, duration, startTime);
+            case EPIC -> new Epic(name, description);
+            case SUBTASK -> new Subtask(name, description, status, Integer.parseInt(parts[7].trim()),
+                    duration, startTime);
+        };
+        task.setId(id);
+        return task;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.tracker.service.FileBackedTaskManager;
+import ru.practicum.tracker.service.SnapshotFormat;
+import ru.practicum.tracker.service.StorageConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Холодная загрузка хранилища из {@code size} записей: каждый замер — новый менеджер
+ * из файла, записанного один раз на весь прогон.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FileStoreLoadBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"CSV", "BINARY"})
+    public SnapshotFormat format;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private StoreFixture fixture;
+    private StorageConfig config;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        config = new StorageConfig();
+        config.setSnapshotFormat(format);
+        config.setLoadParallelism(parallelism);
+        fixture = new StoreFixture();
+        FileBackedTaskManager manager = new FileBackedTaskManager(fixture.file(), config);
+        fixture.populate(manager, size);
+        manager.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.delete();
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(fixture.file(), config);
+        manager.close();
+        return manager;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.tracker.model.Task;
+import ru.practicum.tracker.model.TaskStatus;
+import ru.practicum.tracker.service.FileBackedTaskManager;
+import ru.practicum.tracker.service.PersistenceMode;
+import ru.practicum.tracker.service.SnapshotFormat;
+import ru.practicum.tracker.service.StorageConfig;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка полного снимка и одного изменения для хранилища из {@code size} записей.
+ * Счётчик {@code bytesWritten} показывает объём записи на изменение;
+ * частоту аллокаций даёт запуск с {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class FileStoreSaveBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"SNAPSHOT", "JOURNAL"})
+    public PersistenceMode mode;
+
+    @Param({"CSV", "BINARY"})
+    public SnapshotFormat format;
+
+    private StoreFixture fixture;
+    private FileBackedTaskManager manager;
+    private Task task;
+    private boolean done;
+
+    // Объём записи за итерацию; делённый на число операций даёт байты на изменение
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WriteCounters {
+        public long bytesWritten;
+        public long mutations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesWritten = 0;
+            mutations = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StorageConfig config = new StorageConfig();
+        config.setMode(mode);
+        config.setSnapshotFormat(format);
+        fixture = new StoreFixture();
+        manager = new FileBackedTaskManager(fixture.file(), config);
+        fixture.populate(manager, size);
+        task = manager.getAllTasks().get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+        fixture.delete();
+    }
+
+    @Benchmark
+    public void save() {
+        manager.save();
+    }
+
+    @Benchmark
+    public void updateTask(WriteCounters counters) {
+        File journal = fixture.journal();
+        long journalBefore = journal.length();
+        done = !done;
+        Task updated = new Task(task.getName(), task.getDescription(), done ? TaskStatus.DONE : TaskStatus.NEW,
+                task.getDuration(), task.getStartTime());
+        updated.setId(task.getId());
+        manager.updateTask(updated);
+
+        long journalAfter = journal.length();
+        if (mode == PersistenceMode.SNAPSHOT) {
+            counters.bytesWritten += fixture.file().length();
+        } else if (journalAfter >= journalBefore) {
+            counters.bytesWritten += journalAfter - journalBefore;
+        } else {
+            // Журнал свернулся в новый снимок
+            counters.bytesWritten += fixture.file().length() + journalAfter;
+        }
+        counters.mutations++;
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.tracker.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.tracker.model.*;
+import ru.practicum.tracker.model.adapter.DurationAdapter;
+import ru.practicum.tracker.model.adapter.LocalDateTimeAdapter;
+import ru.practicum.tracker.util.GsonUtils;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность сериализации списка задач: прежний рефлективный Gson
+ * (зарегистрированы только адаптеры LocalDateTime и Duration) против
+ * {@link ru.practicum.tracker.model.adapter.TaskTypeAdapterFactory} из {@link GsonUtils}.
+ * Набор смешанный: задачи, эпики и подзадачи в пропорции 2:1:2.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GsonTaskBenchmark {
+    private static final Type SUBTASK_LIST = new TypeToken<List<Subtask>>() {
+    }.getType();
+
+    @Param({"REFLECTIVE", "ADAPTER"})
+    public String mapper;
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private Gson gson;
+    private List<Task> tasks;
+    private String subtasksJson;
+
+    @Setup
+    public void setUp() {
+        gson = mapper.equals("ADAPTER")
+                ? GsonUtils.getGson()
+                : new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .create();
+
+        tasks = new ArrayList<>(size);
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Task task = switch (i % 5) {
+                case 0, 1 -> TaskDataset.timedTask(i);
+                case 2 -> {
+                    Epic epic = new Epic("Epic " + i, "Benchmark epic");
+                    epic.addSubtaskId(i + 1);
+                    epic.addSubtaskId(i + 2);
+                    yield epic;
+                }
+                default -> {
+                    Subtask subtask = new Subtask("Subtask " + i, "Benchmark subtask", TaskStatus.IN_PROGRESS,
+                            i - (i % 5) + 2, Duration.ofMinutes(TaskDataset.TASK_MINUTES), TaskDataset.slot(i));
+                    subtasks.add(subtask);
+                    yield subtask;
+                }
+            };
+            task.setId(i + 1);
+            tasks.add(task);
+        }
+        // Чтение сравнивается на подзадачах: рефлективный Gson не восстанавливает подклассы из List<Task>
+        subtasksJson = gson.toJson(subtasks);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return gson.toJson(tasks);
+    }
+
+    @Benchmark
+    public List<Subtask> deserialize() {
+        return gson.fromJson(subtasksJson, SUBTASK_LIST);
+    }
+}
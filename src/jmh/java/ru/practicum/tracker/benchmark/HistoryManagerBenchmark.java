@@ -0,0 +1,69 @@
+package ru.practicum.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.tracker.history.BoundedHistoryManager;
+import ru.practicum.tracker.history.HistoryManager;
+import ru.practicum.tracker.history.InMemoryHistoryManager;
+import ru.practicum.tracker.model.Task;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Операции истории при {@code historySize} уже просмотренных задачах.
+ * LINKED — {@link InMemoryHistoryManager}, BOUNDED — {@link BoundedHistoryManager}
+ * ёмкостью {@code historySize}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class HistoryManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int historySize;
+
+    @Param({"LINKED", "BOUNDED"})
+    public String implementation;
+
+    private HistoryManager history;
+    private Task[] tasks;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = implementation.equals("BOUNDED")
+                ? new BoundedHistoryManager(historySize)
+                : new InMemoryHistoryManager();
+        tasks = new Task[historySize];
+        for (int i = 0; i < historySize; i++) {
+            tasks[i] = new Task("Task " + i, "Benchmark task");
+            tasks[i].setId(i + 1);
+            history.add(tasks[i]);
+        }
+        random = new SplittableRandom(42);
+    }
+
+    // Повторный просмотр: задача переносится в конец истории
+    @Benchmark
+    public void addExisting() {
+        history.add(tasks[random.nextInt(historySize)]);
+    }
+
+    // Удаление и возврат в историю, размер истории сохраняется
+    @Benchmark
+    public void removeAndAdd() {
+        Task task = tasks[random.nextInt(historySize)];
+        history.remove(task.getId());
+        history.add(task);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Task> getHistory() {
+        return history.getHistory();
+    }
+}
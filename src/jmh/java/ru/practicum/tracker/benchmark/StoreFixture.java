@@ -0,0 +1,56 @@
+package ru.practicum.tracker.benchmark;
+
+import ru.practicum.tracker.service.FileBackedTaskManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Временный каталог с файлами хранилища для бенчмарков FileBackedTaskManager.
+ */
+final class StoreFixture {
+    private final Path directory;
+    private final File file;
+
+    StoreFixture() {
+        try {
+            directory = Files.createTempDirectory("task-store-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        file = directory.resolve("tasks.csv").toFile();
+    }
+
+    File file() {
+        return file;
+    }
+
+    File journal() {
+        return new File(file.getPath() + ".journal");
+    }
+
+    // Заполняет хранилище задачами и эпиками с подзадачами и записывает снимок
+    void populate(FileBackedTaskManager manager, int size) {
+        TaskDataset.addTasks(manager, size / 2, true);
+        long slot = size / 2;
+        for (int added = 0; added < size / 2; added += 100) {
+            int count = Math.min(100, size / 2 - added);
+            TaskDataset.addEpic(manager, count, true, slot);
+            slot += count;
+        }
+        manager.save();
+    }
+
+    void delete() {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
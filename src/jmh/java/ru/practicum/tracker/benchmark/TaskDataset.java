@@ -0,0 +1,52 @@
+package ru.practicum.tracker.benchmark;
+
+import ru.practicum.tracker.model.Epic;
+import ru.practicum.tracker.model.Subtask;
+import ru.practicum.tracker.model.Task;
+import ru.practicum.tracker.model.TaskStatus;
+import ru.practicum.tracker.service.TaskManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Генерация наборов данных для бенчмарков. Задачи со временем идут по сетке SLOT_MINUTES
+ * с продолжительностью TASK_MINUTES, поэтому между соседями остаётся свободный промежуток.
+ */
+final class TaskDataset {
+    static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    static final int SLOT_MINUTES = 15;
+    static final int TASK_MINUTES = 10;
+
+    private TaskDataset() {
+    }
+
+    static LocalDateTime slot(long index) {
+        return BASE.plusMinutes(index * SLOT_MINUTES);
+    }
+
+    static Task timedTask(long slot) {
+        return new Task("Task " + slot, "Benchmark task", Duration.ofMinutes(TASK_MINUTES), slot(slot));
+    }
+
+    // Задачи занимают слоты 0..count-1
+    static void addTasks(TaskManager manager, int count, boolean timed) {
+        for (int i = 0; i < count; i++) {
+            manager.createTask(timed ? timedTask(i) : new Task("Task " + i, "Benchmark task"));
+        }
+    }
+
+    // Подзадачи занимают слоты начиная с firstSlot; возвращает id эпика
+    static int addEpic(TaskManager manager, int subtasks, boolean timed, long firstSlot) {
+        Epic epic = manager.createEpic(new Epic("Epic", "Benchmark epic"));
+        for (int i = 0; i < subtasks; i++) {
+            TaskStatus status = i % 2 == 0 ? TaskStatus.NEW : TaskStatus.DONE;
+            Subtask subtask = timed
+                    ? new Subtask("Subtask " + i, "Benchmark subtask", status, epic.getId(),
+                    Duration.ofMinutes(TASK_MINUTES), slot(firstSlot + i))
+                    : new Subtask("Subtask " + i, "Benchmark subtask", status, epic.getId());
+            manager.createSubtask(subtask);
+        }
+        return epic.getId();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.tracker.model.Subtask;
+import ru.practicum.tracker.model.Task;
+import ru.practicum.tracker.service.InMemoryTaskManager;
+import ru.practicum.tracker.service.ManagerConflictException;
+import ru.practicum.tracker.util.Managers;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Создание задач и подзадач в менеджере, где уже есть {@code size} задач со временем.
+ * Состояние пересоздаётся на каждой итерации, чтобы рост менеджера не искажал результат.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class TaskManagerCreateBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private InMemoryTaskManager manager;
+    private int epicId;
+    private long nextFreeSlot;
+    private SplittableRandom random;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        manager = new InMemoryTaskManager(Managers.getDefaultHistory());
+        TaskDataset.addTasks(manager, size, true);
+        epicId = TaskDataset.addEpic(manager, 0, false, 0);
+        nextFreeSlot = size;
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Task createTask() {
+        return manager.createTask(new Task("Task", "Without start time"));
+    }
+
+    @Benchmark
+    public Task createTimedTask() {
+        return manager.createTask(TaskDataset.timedTask(nextFreeSlot++));
+    }
+
+    @Benchmark
+    public Subtask createSubtask() {
+        return manager.createSubtask(new Subtask("Subtask", "Without start time", epicId));
+    }
+
+    @Benchmark
+    public Subtask createTimedSubtask() {
+        return manager.createSubtask(new Subtask("Subtask", "With start time", epicId,
+                Duration.ofMinutes(TaskDataset.TASK_MINUTES), TaskDataset.slot(nextFreeSlot++)));
+    }
+
+    // Вставки в занятую часть расписания: каждая требует проверки пересечения, большинство отклоняется
+    @Benchmark
+    public Task createConflictingTask() {
+        long slot = random.nextLong(size);
+        Task task = new Task("Task", "Overlapping", Duration.ofMinutes(TaskDataset.TASK_MINUTES),
+                TaskDataset.slot(slot).plusMinutes(5));
+        try {
+            return manager.createTask(task);
+        } catch (ManagerConflictException e) {
+            return null;
+        }
+    }
+}
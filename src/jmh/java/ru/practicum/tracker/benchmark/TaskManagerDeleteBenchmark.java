@@ -0,0 +1,56 @@
+package ru.practicum.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.tracker.service.InMemoryTaskManager;
+import ru.practicum.tracker.util.Managers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Массовые удаления. Каждый замер начинается с заново заполненного менеджера:
+ * {@code size} задач и {@code size} подзадач, распределённых по эпикам по 100 штук.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class TaskManagerDeleteBenchmark {
+    private static final int SUBTASKS_PER_EPIC = 100;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private InMemoryTaskManager manager;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        manager = new InMemoryTaskManager(Managers.getDefaultHistory());
+        TaskDataset.addTasks(manager, size, true);
+        long slot = size;
+        for (int added = 0; added < size; added += SUBTASKS_PER_EPIC) {
+            int count = Math.min(SUBTASKS_PER_EPIC, size - added);
+            TaskDataset.addEpic(manager, count, true, slot);
+            slot += count;
+        }
+        for (int id = 1; id <= size; id += 10) {
+            manager.getTask(id); // Часть задач в истории, чтобы удаление затрагивало и её
+        }
+    }
+
+    @Benchmark
+    public void deleteTasks() {
+        manager.deleteTasks();
+    }
+
+    @Benchmark
+    public void deleteSubtasks() {
+        manager.deleteSubtasks();
+    }
+
+    @Benchmark
+    public void deleteEpics() {
+        manager.deleteEpics();
+    }
+}
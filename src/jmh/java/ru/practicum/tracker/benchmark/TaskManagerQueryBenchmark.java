@@ -0,0 +1,64 @@
+package ru.practicum.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.tracker.model.Subtask;
+import ru.practicum.tracker.model.Task;
+import ru.practicum.tracker.model.TaskStatus;
+import ru.practicum.tracker.service.InMemoryTaskManager;
+import ru.practicum.tracker.util.Managers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтения и обновления на наборе из {@code size} задач и эпика с {@code size} подзадачами.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class TaskManagerQueryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private InMemoryTaskManager manager;
+    private int epicId;
+    private List<Subtask> epicSubtasks;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new InMemoryTaskManager(Managers.getDefaultHistory());
+        TaskDataset.addTasks(manager, size, true);
+        epicId = TaskDataset.addEpic(manager, size, true, size);
+        epicSubtasks = new ArrayList<>(manager.getEpicSubtasks(epicId));
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return manager.getPrioritizedTasks();
+    }
+
+    @Benchmark
+    public List<Subtask> getEpicSubtasks() {
+        return manager.getEpicSubtasks(epicId);
+    }
+
+    // Смена статуса одной подзадачи большого эпика, время начала не меняется
+    @Benchmark
+    public Subtask updateSubtask() {
+        Subtask current = epicSubtasks.get(cursor);
+        Subtask updated = new Subtask(current.getName(), current.getDescription(),
+                current.getStatus() == TaskStatus.DONE ? TaskStatus.IN_PROGRESS : TaskStatus.DONE,
+                current.getEpicId(), current.getDuration(), current.getStartTime());
+        updated.setId(current.getId());
+        manager.updateSubtask(updated);
+        epicSubtasks.set(cursor, updated);
+        cursor = (cursor + 1) % epicSubtasks.size();
+        return updated;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.tracker.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасная гистограмма задержек в микросекундах.
+ * <p>
+ * Корзины логарифмически-линейные: на каждую степень двойки приходится SUB_BUCKETS корзин,
+ * поэтому относительная погрешность процентилей не превышает 1/SUB_BUCKETS (около 3%)
+ * при фиксированном объёме памяти и без блокировок при записи.
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Значения от 2^(MAX_SHIFT + SUB_BUCKET_BITS) мкс (около 9 часов) попадают в последнюю корзину
+    private static final int MAX_SHIFT = 30;
+    private static final int BUCKET_COUNT = (MAX_SHIFT + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    void record(long micros) {
+        counts.incrementAndGet(bucketOf(Math.max(0, micros)));
+        total.increment();
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * Возвращает верхнюю границу корзины, в которую попадает процентиль {@code percentile} (0..100).
+     */
+    long percentile(double percentile) {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length(); bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return upperBoundOf(bucket);
+            }
+        }
+        return upperBoundOf(counts.length() - 1);
+    }
+
+    // Значения меньше 2 * SUB_BUCKETS хранятся точно, дальше — SUB_BUCKETS корзин на степень двойки
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (shift >= MAX_SHIFT) {
+            return BUCKET_COUNT - 1;
+        }
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,225 @@
+package ru.practicum.tracker.loadtest;
+
+import com.google.gson.Gson;
+import ru.practicum.tracker.model.Epic;
+import ru.practicum.tracker.model.Subtask;
+import ru.practicum.tracker.model.Task;
+import ru.practicum.tracker.model.TaskStatus;
+import ru.practicum.tracker.server.HttpTaskServer;
+import ru.practicum.tracker.service.TaskManager;
+import ru.practicum.tracker.util.GsonUtils;
+import ru.practicum.tracker.util.Managers;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Нагрузочный прогон HTTP API: {@code concurrency} потоков в цикле отправляют запросы
+ * со смесью чтений и изменений, задержки собираются по каждой конечной точке.
+ * После прогрева печатается пропускная способность и процентили p50/p99/p999.
+ * <p>
+ * Запуск: {@code mvn -P loadtest compile exec:java -Dloadtest.args="--concurrency=32 --duration=60"}
+ */
+public class LoadTest {
+    private static final Gson GSON = GsonUtils.getGson();
+
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final Map<String, LatencyHistogram> endpoints = new ConcurrentSkipListMap<>();
+    // Id задач, созданных до и во время прогона; удалённые убираются
+    private final Map<Integer, Boolean> taskIds = new ConcurrentHashMap<>();
+    private final List<Integer> epicIds = new ArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile boolean recording;
+    private volatile boolean running = true;
+    private long elapsedNanos;
+
+    LoadTest(LoadTestConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        HttpTaskServer server = null;
+        String baseUrl = config.getUrl();
+        if (baseUrl == null) {
+            TaskManager manager = Managers.getConcurrent();
+            server = new HttpTaskServer(manager, config.getServerConfig());
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+        try {
+            LoadTest test = new LoadTest(config, baseUrl);
+            test.populate();
+            test.run();
+            test.printReport(System.out);
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    // Начальные данные создаются через API, чтобы прогон работал и против внешнего сервера
+    void populate() throws IOException, InterruptedException {
+        for (int i = 0; i < config.getInitialTasks(); i++) {
+            Task task = GSON.fromJson(send("POST", "/tasks", GSON.toJson(new Task("Task " + i, "Load test"))).body(),
+                    Task.class);
+            taskIds.put(task.getId(), Boolean.TRUE);
+            if (i % 10 == 0) {
+                Epic epic = GSON.fromJson(send("POST", "/epics", GSON.toJson(new Epic("Epic " + i, "Load test")))
+                        .body(), Epic.class);
+                epicIds.add(epic.getId());
+                send("POST", "/subtasks", GSON.toJson(new Subtask("Subtask " + i, "Load test", epic.getId())));
+            }
+        }
+    }
+
+    void run() throws InterruptedException {
+        System.out.println("Нагрузка на " + baseUrl + ": " + config);
+        CountDownLatch finished = new CountDownLatch(config.getConcurrency());
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            long seed = i;
+            Thread worker = new Thread(() -> {
+                try {
+                    work(new SplittableRandom(seed));
+                } finally {
+                    finished.countDown();
+                }
+            }, "load-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        Thread.sleep(config.getWarmup().toMillis());
+        recording = true;
+        long started = System.nanoTime();
+        Thread.sleep(config.getDuration().toMillis());
+        recording = false;
+        running = false;
+        elapsedNanos = System.nanoTime() - started;
+        finished.await();
+    }
+
+    private void work(SplittableRandom random) {
+        while (running) {
+            boolean read = random.nextDouble() < config.getReadRatio();
+            try {
+                if (read) {
+                    performRead(random);
+                } else {
+                    performWrite(random);
+                }
+            } catch (IOException e) {
+                failures.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void performRead(SplittableRandom random) throws IOException, InterruptedException {
+        switch (random.nextInt(6)) {
+            case 0 -> timed("GET /tasks", "GET", "/tasks", null);
+            case 1 -> timed("GET /tasks/{id}", "GET", "/tasks/" + anyTaskId(random), null);
+            case 2 -> timed("GET /subtasks", "GET", "/subtasks", null);
+            case 3 -> timed("GET /epics/{id}/subtasks", "GET",
+                    "/epics/" + epicIds.get(random.nextInt(epicIds.size())) + "/subtasks", null);
+            case 4 -> timed("GET /history", "GET", "/history", null);
+            default -> timed("GET /prioritized", "GET", "/prioritized", null);
+        }
+    }
+
+    private void performWrite(SplittableRandom random) throws IOException, InterruptedException {
+        switch (random.nextInt(3)) {
+            case 0 -> {
+                HttpResponse<String> response = timed("POST /tasks (create)", "POST", "/tasks",
+                        GSON.toJson(new Task("Task", "Load test")));
+                if (response.statusCode() == 201) {
+                    taskIds.put(GSON.fromJson(response.body(), Task.class).getId(), Boolean.TRUE);
+                }
+            }
+            case 1 -> {
+                Task task = new Task("Task", "Updated", random.nextBoolean() ? TaskStatus.DONE : TaskStatus.IN_PROGRESS);
+                task.setId(anyTaskId(random));
+                timed("POST /tasks (update)", "POST", "/tasks", GSON.toJson(task));
+            }
+            default -> {
+                int id = anyTaskId(random);
+                // Удаляем не чаще, чем создаём, чтобы набор данных не опустел
+                if (taskIds.size() > config.getInitialTasks() / 2 && taskIds.remove(id) != null) {
+                    timed("DELETE /tasks/{id}", "DELETE", "/tasks/" + id, null);
+                }
+            }
+        }
+    }
+
+    private int anyTaskId(SplittableRandom random) {
+        Object[] ids = taskIds.keySet().toArray();
+        return ids.length == 0 ? 1 : (Integer) ids[random.nextInt(ids.length)];
+    }
+
+    private HttpResponse<String> timed(String endpoint, String method, String path, String body)
+            throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        HttpResponse<String> response = send(method, path, body);
+        long micros = (System.nanoTime() - started) / 1_000;
+        if (recording) {
+            LatencyHistogram histogram = endpoints.computeIfAbsent(endpoint, key -> new LatencyHistogram());
+            histogram.record(micros);
+            if (response.statusCode() >= 500) {
+                histogram.recordError();
+            }
+        }
+        return response;
+    }
+
+    private HttpResponse<String> send(String method, String path, String body)
+            throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, publisher)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    void printReport(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("%-28s %10s %10s %10s %10s %10s %8s%n",
+                "endpoint", "requests", "req/s", "p50 us", "p99 us", "p999 us", "5xx");
+        long totalRequests = 0;
+        for (Map.Entry<String, LatencyHistogram> entry : endpoints.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            totalRequests += histogram.count();
+            out.printf("%-28s %10d %10.1f %10d %10d %10d %8d%n", entry.getKey(), histogram.count(),
+                    histogram.count() / seconds, histogram.percentile(50), histogram.percentile(99),
+                    histogram.percentile(99.9), histogram.errors());
+        }
+        out.printf("%-28s %10d %10.1f%n", "total", totalRequests, totalRequests / seconds);
+        if (failures.get() > 0) {
+            out.println("Ошибок соединения: " + failures.get());
+        }
+    }
+}
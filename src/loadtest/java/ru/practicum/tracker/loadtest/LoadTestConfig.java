@@ -0,0 +1,103 @@
+package ru.practicum.tracker.loadtest;
+
+import ru.practicum.tracker.server.ExecutorType;
+import ru.practicum.tracker.server.ServerConfig;
+
+import java.time.Duration;
+
+/**
+ * Параметры нагрузочного прогона. Разбираются из аргументов вида {@code --name=value}.
+ */
+class LoadTestConfig {
+    // Адрес уже запущенного сервера; если не задан, сервер поднимается в том же процессе
+    private String url;
+    private int concurrency = 16;
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration warmup = Duration.ofSeconds(5);
+    // Доля чтений среди запросов, остальное — создание, обновление и удаление
+    private double readRatio = 0.9;
+    // Сколько задач и эпиков создать до начала прогона
+    private int initialTasks = 1_000;
+    // Настройки сервера, поднимаемого в том же процессе
+    private final ServerConfig serverConfig = new ServerConfig();
+
+    LoadTestConfig() {
+        serverConfig.setExecutorType(ExecutorType.VIRTUAL);
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Ожидается аргумент вида --name=value: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "url" -> config.url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "concurrency" -> config.concurrency = positive(name, Integer.parseInt(value));
+                case "duration" -> config.duration = Duration.ofSeconds(positive(name, Integer.parseInt(value)));
+                case "warmup" -> config.warmup = Duration.ofSeconds(Integer.parseInt(value));
+                case "read-ratio" -> {
+                    config.readRatio = Double.parseDouble(value);
+                    if (config.readRatio < 0 || config.readRatio > 1) {
+                        throw new IllegalArgumentException("read-ratio должен быть в диапазоне 0..1");
+                    }
+                }
+                case "initial-tasks" -> config.initialTasks = Integer.parseInt(value);
+                case "port" -> config.serverConfig.setPort(Integer.parseInt(value));
+                case "backlog" -> config.serverConfig.setBacklog(Integer.parseInt(value));
+                case "executor" -> config.serverConfig.setExecutorType(ExecutorType.valueOf(value.toUpperCase()));
+                case "pool-size" -> config.serverConfig.setPoolSize(Integer.parseInt(value));
+                default -> throw new IllegalArgumentException("Неизвестный параметр: " + name);
+            }
+        }
+        return config;
+    }
+
+    private static int positive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " должен быть положительным");
+        }
+        return value;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    double getReadRatio() {
+        return readRatio;
+    }
+
+    int getInitialTasks() {
+        return initialTasks;
+    }
+
+    ServerConfig getServerConfig() {
+        return serverConfig;
+    }
+
+    @Override
+    public String toString() {
+        return "concurrency=" + concurrency + ", duration=" + duration.toSeconds() + "s, warmup="
+                + warmup.toSeconds() + "s, readRatio=" + readRatio + ", initialTasks=" + initialTasks
+                + (url == null ? ", executor=" + serverConfig.getExecutorType() : "");
+    }
+}
@@ -0,0 +1,191 @@
+package ru.practicum.tracker.history;
+
+import ru.practicum.tracker.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * История просмотров ограниченного размера: при переполнении вытесняется самый старый просмотр.
+ * <p>
+ * Все структуры выделяются в конструкторе. Просмотры лежат в слотах массивов, порядок задают
+ * массивы индексов {@code prev}/{@code next}, свободные слоты связаны через {@code next}.
+ * Id задачи сопоставляется слоту открытой адресацией с линейным пробированием; удаление
+ * сдвигает хвост кластера назад, поэтому «надгробий» нет и поиск не деградирует.
+ * Сами {@code add} и {@code remove} не создают объектов: история хранит неизменяемый
+ * {@link Task#snapshot() снимок} задачи, который копируется только после её изменения.
+ */
+public class BoundedHistoryManager implements HistoryManager {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    private static final int NONE = -1;
+
+    private final int capacity;
+    private final Task[] tasks;
+    private final int[] ids;
+    private final int[] prev;
+    private final int[] next;
+    // Хеш-таблица id → слот; slots хранит номер слота + 1, 0 — пустая ячейка
+    private final int[] keys;
+    private final int[] slots;
+    private final int mask;
+    private int head = NONE;
+    private int tail = NONE;
+    private int free;
+    private int size;
+
+    public BoundedHistoryManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BoundedHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным");
+        }
+        this.capacity = capacity;
+        this.tasks = new Task[capacity];
+        this.ids = new int[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : NONE;
+        }
+        // Заполненность таблицы не выше 50%
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.keys = new int[tableSize];
+        this.slots = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        int id = task.getId();
+        int slot = find(id);
+        if (slot != NONE) {
+            unlink(slot);
+        } else {
+            if (size == capacity) {
+                evictOldest();
+            }
+            slot = free;
+            free = next[slot];
+            ids[slot] = id;
+            put(id, slot);
+            size++;
+        }
+        tasks[slot] = task.snapshot();
+        linkLast(slot);
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = find(id);
+        if (slot == NONE) {
+            return;
+        }
+        unlink(slot);
+        delete(id);
+        release(slot);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(size);
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            history.add(tasks[slot]);
+        }
+        return history;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void evictOldest() {
+        int slot = head;
+        unlink(slot);
+        delete(ids[slot]);
+        release(slot);
+    }
+
+    private void release(int slot) {
+        tasks[slot] = null;
+        next[slot] = free;
+        free = slot;
+        size--;
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail = before;
+        } else {
+            prev[after] = before;
+        }
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int find(int id) {
+        for (int i = hash(id) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == id) {
+                return slots[i] - 1;
+            }
+        }
+        return NONE;
+    }
+
+    private void put(int id, int slot) {
+        int i = hash(id) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        slots[i] = slot + 1;
+    }
+
+    // Удаление со сдвигом: элементы кластера за удалённой ячейкой переносятся ближе к своему месту
+    private void delete(int id) {
+        int i = hash(id) & mask;
+        while (keys[i] != id || slots[i] == 0) {
+            i = (i + 1) & mask;
+        }
+        int gap = i;
+        for (int j = (gap + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            // Элемент j можно перенести в gap, если его исходная позиция не лежит в (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                slots[gap] = slots[j];
+                gap = j;
+            }
+        }
+        slots[gap] = 0;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.tracker.history;
+
+/**
+ * Клиент, от имени которого текущий поток обрабатывает запрос.
+ * Выставляется HTTP-фильтром на время запроса и читается {@link PartitionedHistoryManager};
+ * вне запроса (загрузка из файла, тесты) клиент не задан.
+ */
+public final class ClientContext {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ClientContext() {
+    }
+
+    // null, если клиент не задан
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static void set(String clientId) {
+        CURRENT.set(clientId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
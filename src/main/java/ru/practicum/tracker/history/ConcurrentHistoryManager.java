@@ -0,0 +1,109 @@
+package ru.practicum.tracker.history;
+
+import ru.practicum.tracker.model.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * История просмотров для многопоточного сервера без общей блокировки на запись.
+ * <p>
+ * Каждый просмотр получает номер из общего счётчика и кладётся в {@link ConcurrentHashMap}
+ * по id задачи; при гонке двух просмотров одной задачи остаётся просмотр с большим номером.
+ * {@link #getHistory()} сортирует записи по номеру, поэтому порядок истории — порядок выдачи
+ * номеров: просмотры из одного потока идут в порядке вызовов, параллельные упорядочиваются
+ * произвольно, но одинаково для всех читателей. Чтение истории стоит O(n log n) и выполняется
+ * гораздо реже записи.
+ * <p>
+ * При заданной ёмкости история подрезается не на каждом просмотре: когда записей становится
+ * больше ёмкости с запасом, один из потоков удаляет самые старые, остальные не ждут.
+ * Как и у {@link SynchronizedHistoryManager}, просмотр, начатый до удаления задачи, может
+ * завершиться после него и вернуть задачу в историю.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final Comparator<View> BY_SEQUENCE = Comparator.comparingLong(View::sequence);
+
+    private final Map<Integer, View> views = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReentrantLock trimLock = new ReentrantLock();
+    private final int capacity;
+    private final int trimThreshold;
+
+    public ConcurrentHistoryManager() {
+        this(0);
+    }
+
+    // capacity — сколько последних просмотров хранить; 0 — без ограничения
+    public ConcurrentHistoryManager(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Размер истории не может быть отрицательным");
+        }
+        this.capacity = capacity;
+        this.trimThreshold = capacity + capacity / 8 + 1;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        View view = new View(sequence.incrementAndGet(), task.snapshot());
+        views.merge(task.getId(), view, (current, candidate) ->
+                candidate.sequence > current.sequence ? candidate : current);
+        if (capacity > 0 && views.size() > trimThreshold) {
+            trim();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        views.remove(id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<View> ordered = sortedViews();
+        int from = capacity > 0 ? Math.max(0, ordered.size() - capacity) : 0;
+        List<Task> history = new ArrayList<>(ordered.size() - from);
+        for (int i = from; i < ordered.size(); i++) {
+            history.add(ordered.get(i).task);
+        }
+        return history;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    private List<View> sortedViews() {
+        List<View> ordered = new ArrayList<>(views.values());
+        ordered.sort(BY_SEQUENCE);
+        return ordered;
+    }
+
+    private void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            List<View> ordered = sortedViews();
+            int excess = ordered.size() - capacity;
+            for (int i = 0; i < excess; i++) {
+                View oldest = ordered.get(i);
+                // Удаляем только ту запись, что видели: повторный просмотр за это время сохранится
+                views.remove(oldest.task.getId(), oldest);
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    private record View(long sequence, Task task) {
+    }
+}
@@ -14,4 +14,19 @@ public interface HistoryManager {
 
 
     List<Task> getHistory();
+
+    // Восстанавливает сохранённый просмотр при загрузке; в отличие от add не считается новым просмотром
+    default void restore(Task task) {
+        add(task);
+    }
+
+    // Самые просматриваемые задачи, не больше limit; пусто, если история не ведёт статистику
+    default List<ViewCount> getMostViewed(int limit) {
+        return List.of();
+    }
+
+    // true, если реализация сама безопасна для вызовов из нескольких потоков
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
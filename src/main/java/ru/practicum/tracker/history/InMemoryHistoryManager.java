@@ -35,11 +35,8 @@ public class InMemoryHistoryManager implements HistoryManager {
         // Удаляем существующую запись, если есть
         remove(task.getId());
 
-        // Создаем копию задачи для истории
-        Task taskCopy = task.copy();
-
-        // Добавляем задачу в конец списка
-        linkLast(taskCopy);
+        // Снимок задачи общий для всех просмотров до её следующего изменения
+        linkLast(task.snapshot());
 
         // Сохраняем в мапе
         nodeMap.put(task.getId(), tail);
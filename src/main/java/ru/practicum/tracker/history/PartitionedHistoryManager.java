@@ -0,0 +1,199 @@
+package ru.practicum.tracker.history;
+
+import ru.practicum.tracker.model.Task;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Отдельная история для каждого клиента из {@link ClientContext}.
+ * <p>
+ * Просмотры и {@link #getHistory()} обращаются к истории текущего клиента, поэтому клиенты
+ * не видят чужих просмотров и не конкурируют за общую структуру. Запросы без клиента
+ * попадают в общий раздел, который никогда не вытесняется. Разделы, простаивающие дольше
+ * {@code idleTimeout}, удаляются попутно с обращениями: не чаще раза в половину
+ * {@code idleTimeout} один из обращающихся потоков проходит по разделам, поэтому раздел
+ * ушедшего клиента живёт не дольше полутора {@code idleTimeout}, пока к менеджеру есть
+ * обращения. Число разделов ограничено: если при создании нового места нет, удаляются
+ * простаивающие, а затем давно не использованный. Память ограничена произведением
+ * числа разделов на ёмкость одного раздела.
+ * <p>
+ * Удаление задачи убирает её из всех разделов и стоит O(число разделов).
+ */
+public class PartitionedHistoryManager implements HistoryManager {
+    private static final String SHARED = "";
+
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final int maxPartitions;
+    private final long idleTimeoutNanos;
+    private final long sweepIntervalNanos;
+    // Время ближайшего прохода по простаивающим разделам
+    private final AtomicLong nextSweep;
+    private final Supplier<HistoryManager> factory;
+    private final LongSupplier clock;
+
+    // Разделы — ConcurrentHistoryManager заданной ёмкости
+    public PartitionedHistoryManager(int maxPartitions, int partitionCapacity, Duration idleTimeout) {
+        this(maxPartitions, idleTimeout, boundedPartitions(partitionCapacity));
+    }
+
+    public PartitionedHistoryManager(int maxPartitions, Duration idleTimeout, Supplier<HistoryManager> factory) {
+        this(maxPartitions, idleTimeout, factory, System::nanoTime);
+    }
+
+    PartitionedHistoryManager(int maxPartitions, Duration idleTimeout, Supplier<HistoryManager> factory,
+                              LongSupplier clock) {
+        if (maxPartitions <= 0) {
+            throw new IllegalArgumentException("Количество разделов должно быть положительным");
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Время простоя раздела должно быть положительным");
+        }
+        this.maxPartitions = maxPartitions;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.sweepIntervalNanos = Math.max(1, idleTimeoutNanos / 2);
+        this.factory = factory;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.nextSweep = new AtomicLong(now + sweepIntervalNanos);
+        partitions.put(SHARED, new Partition(newHistory(), now));
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        partition(currentKey()).add(task);
+    }
+
+    @Override
+    public void remove(int id) {
+        for (Partition partition : partitions.values()) {
+            partition.history.remove(id);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        // Чтение не создаёт раздел: у нового клиента история пуста
+        long now = clock.getAsLong();
+        evictIdleIfDue(now);
+        Partition partition = partitions.get(currentKey());
+        if (partition == null) {
+            return List.of();
+        }
+        partition.touch(now);
+        return partition.history.getHistory();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    // Количество разделов клиентов без общего
+    public int getPartitionCount() {
+        return partitions.size() - 1;
+    }
+
+    // Удаляет разделы, простаивающие дольше idleTimeout
+    public void evictIdle() {
+        evictIdle(clock.getAsLong());
+    }
+
+    private void evictIdle(long now) {
+        partitions.entrySet().removeIf(entry ->
+                !entry.getKey().equals(SHARED) && now - entry.getValue().lastAccess > idleTimeoutNanos);
+    }
+
+    private static Supplier<HistoryManager> boundedPartitions(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории раздела должен быть положительным");
+        }
+        return () -> new ConcurrentHistoryManager(capacity);
+    }
+
+    private static String currentKey() {
+        String clientId = ClientContext.current();
+        return clientId == null ? SHARED : clientId;
+    }
+
+    // Проход выполняет один поток, выигравший CAS; остальные не ждут
+    private void evictIdleIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due >= 0 && nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+            evictIdle(now);
+        }
+    }
+
+    private Partition partition(String key) {
+        long now = clock.getAsLong();
+        evictIdleIfDue(now);
+        Partition partition = partitions.get(key);
+        if (partition == null) {
+            partition = createPartition(key, now);
+        }
+        partition.touch(now);
+        return partition;
+    }
+
+    // Новые клиенты появляются редко, поэтому создание и вытеснение сериализуются
+    private synchronized Partition createPartition(String key, long now) {
+        Partition existing = partitions.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (getPartitionCount() >= maxPartitions) {
+            evictIdle(now);
+        }
+        if (getPartitionCount() >= maxPartitions) {
+            evictLeastRecentlyUsed();
+        }
+        Partition partition = new Partition(newHistory(), now);
+        partitions.put(key, partition);
+        return partition;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        String oldestKey = null;
+        long oldestAccess = Long.MAX_VALUE;
+        for (Map.Entry<String, Partition> entry : partitions.entrySet()) {
+            if (!entry.getKey().equals(SHARED) && entry.getValue().lastAccess < oldestAccess) {
+                oldestKey = entry.getKey();
+                oldestAccess = entry.getValue().lastAccess;
+            }
+        }
+        if (oldestKey != null) {
+            partitions.remove(oldestKey);
+        }
+    }
+
+    private HistoryManager newHistory() {
+        HistoryManager history = factory.get();
+        return history.isThreadSafe() ? history : new SynchronizedHistoryManager(history);
+    }
+
+    private static final class Partition {
+        private final HistoryManager history;
+        private volatile long lastAccess;
+
+        private Partition(HistoryManager history, long lastAccess) {
+            this.history = history;
+            this.lastAccess = lastAccess;
+        }
+
+        private void add(Task task) {
+            history.add(task);
+        }
+
+        private void touch(long now) {
+            lastAccess = now;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.tracker.history;
+
+import ru.practicum.tracker.model.Task;
+
+import java.util.List;
+
+/**
+ * Потокобезопасная обёртка над произвольным менеджером истории.
+ * Все операции выполняются под монитором обёртки.
+ */
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+
+    public SynchronizedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public synchronized void restore(Task task) {
+        delegate.restore(task);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public List<ViewCount> getMostViewed(int limit) {
+        // Статистика синхронизирована сама, монитор обёртки не нужен
+        return delegate.getMostViewed(limit);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+}
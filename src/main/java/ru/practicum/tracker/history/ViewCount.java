@@ -0,0 +1,11 @@
+package ru.practicum.tracker.history;
+
+/**
+ * Число просмотров задачи из {@link ViewStatistics}.
+ *
+ * @param taskId   id задачи
+ * @param views    оценка сверху числа просмотров
+ * @param maxError насколько оценка может превышать истинное значение
+ */
+public record ViewCount(int taskId, long views, long maxError) {
+}
@@ -0,0 +1,60 @@
+package ru.practicum.tracker.history;
+
+import ru.practicum.tracker.model.Task;
+
+import java.util.List;
+
+/**
+ * Менеджер истории, который вдобавок к порядку просмотров ведёт их частоту в
+ * {@link ViewStatistics}. Память статистики фиксирована и не зависит от числа задач.
+ * Безопасен для нескольких потоков, если безопасна обёрнутая история.
+ */
+public class ViewCountingHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+    private final ViewStatistics statistics;
+
+    public ViewCountingHistoryManager(HistoryManager delegate) {
+        this(delegate, new ViewStatistics());
+    }
+
+    public ViewCountingHistoryManager(HistoryManager delegate, ViewStatistics statistics) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        delegate.add(task);
+        statistics.record(task.getId());
+    }
+
+    // Восстановленные при загрузке просмотры уже были учтены до перезапуска и не пересчитываются
+    @Override
+    public void restore(Task task) {
+        delegate.restore(task);
+    }
+
+    @Override
+    public void remove(int id) {
+        delegate.remove(id);
+        statistics.remove(id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public List<ViewCount> getMostViewed(int limit) {
+        return statistics.top(limit);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return delegate.isThreadSafe();
+    }
+}
@@ -0,0 +1,328 @@
+package ru.practicum.tracker.history;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Статистика просмотров задач в памяти фиксированного размера.
+ * <p>
+ * Приблизительное число просмотров любой задачи даёт count-min sketch: {@code DEPTH} строк
+ * счётчиков по {@code width}, оценка — минимум по строкам, она не меньше истинной и завышена
+ * не более чем на e/width от общего числа просмотров с вероятностью 1 − e^−DEPTH.
+ * Самые просматриваемые задачи отбирает алгоритм space-saving: {@code trackedTasks} счётчиков;
+ * когда места нет, новая задача занимает счётчик минимальной, наследуя его значение как
+ * погрешность.
+ * <p>
+ * Счётчики sketch увеличиваются без блокировок. Чтобы просмотры из разных потоков не
+ * конкурировали за одну блокировку, space-saving ведётся в нескольких независимых таблицах
+ * по {@code trackedTasks} счётчиков: поток пишет в «свою» таблицу, а если она занята — в первую
+ * свободную. В {@link #top(int)} таблицы объединяются: для таблицы, где задачи нет, берётся её
+ * минимальный счётчик — больше задача там набрать не могла. Поэтому любая задача, набравшая больше
+ * N/trackedTasks из всех N просмотров, гарантированно попадает в результат, как и с одной таблицей.
+ * Память — {@code stripes × trackedTasks} счётчиков.
+ */
+public class ViewStatistics {
+    public static final int DEFAULT_TRACKED_TASKS = 1_024;
+    public static final int DEFAULT_SKETCH_WIDTH = 4_096;
+    private static final int DEPTH = 4;
+    private static final int MAX_STRIPES = 8;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+    private static final Comparator<ViewCount> BY_VIEWS = Comparator.comparingLong(ViewCount::views).reversed()
+            .thenComparingInt(ViewCount::taskId);
+
+    private final AtomicLongArray sketch;
+    private final int widthMask;
+    private final SpaceSaving[] stripes;
+
+    public ViewStatistics() {
+        this(DEFAULT_TRACKED_TASKS, DEFAULT_SKETCH_WIDTH);
+    }
+
+    // sketchWidth округляется вверх до степени двойки; таблиц по числу ядер, не больше MAX_STRIPES
+    public ViewStatistics(int trackedTasks, int sketchWidth) {
+        this(trackedTasks, sketchWidth,
+                Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors())));
+    }
+
+    // stripeCount — степень двойки
+    ViewStatistics(int trackedTasks, int sketchWidth, int stripeCount) {
+        if (trackedTasks <= 0 || sketchWidth <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Размеры статистики должны быть положительными");
+        }
+        int width = Integer.highestOneBit(Math.max(1, sketchWidth - 1)) << 1;
+        this.sketch = new AtomicLongArray(DEPTH * width);
+        this.widthMask = width - 1;
+        this.stripes = new SpaceSaving[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new SpaceSaving(trackedTasks);
+        }
+    }
+
+    public void record(int taskId) {
+        for (int row = 0; row < DEPTH; row++) {
+            sketch.incrementAndGet(cell(row, taskId));
+        }
+        int home = (int) (Thread.currentThread().threadId() & (stripes.length - 1));
+        for (int i = 0; i < stripes.length; i++) {
+            SpaceSaving stripe = stripes[(home + i) & (stripes.length - 1)];
+            if (stripe.lock.tryLock()) {
+                try {
+                    stripe.increment(taskId);
+                } finally {
+                    stripe.lock.unlock();
+                }
+                return;
+            }
+        }
+        SpaceSaving stripe = stripes[home];
+        stripe.lock.lock();
+        try {
+            stripe.increment(taskId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Удалённая задача больше не попадает в самые просматриваемые; sketch не уменьшается
+    public void remove(int taskId) {
+        for (SpaceSaving stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.remove(taskId);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // Оценка сверху числа просмотров задачи
+    public long estimate(int taskId) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, sketch.get(cell(row, taskId)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Самые просматриваемые задачи по убыванию числа просмотров. Оценкой берётся меньшая
+     * из двух оценок сверху — space-saving и sketch, погрешность уменьшается соответственно.
+     */
+    public List<ViewCount> top(int limit) {
+        // id → {сумма счётчиков, сумма погрешностей} по таблицам, где задача есть
+        Map<Integer, long[]> merged = new HashMap<>();
+        long[] minimums = new long[stripes.length];
+        List<List<ViewCount>> perStripe = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            List<ViewCount> counts = new ArrayList<>();
+            SpaceSaving stripe = stripes[i];
+            stripe.lock.lock();
+            try {
+                stripe.collect(counts);
+                minimums[i] = stripe.minimum();
+            } finally {
+                stripe.lock.unlock();
+            }
+            perStripe.add(counts);
+            for (ViewCount count : counts) {
+                merged.computeIfAbsent(count.taskId(), id -> new long[2]);
+            }
+        }
+        for (int i = 0; i < stripes.length; i++) {
+            for (long[] totals : merged.values()) {
+                totals[0] += minimums[i];
+                totals[1] += minimums[i];
+            }
+            // Там, где задача есть, минимум заменяется её счётчиком и погрешностью
+            for (ViewCount count : perStripe.get(i)) {
+                long[] totals = merged.get(count.taskId());
+                totals[0] += count.views() - minimums[i];
+                totals[1] += count.maxError() - minimums[i];
+            }
+        }
+        List<ViewCount> candidates = new ArrayList<>(merged.size());
+        merged.forEach((id, totals) -> candidates.add(new ViewCount(id, totals[0], totals[1])));
+        List<ViewCount> result = new ArrayList<>(candidates.size());
+        for (ViewCount candidate : candidates) {
+            long sketchEstimate = estimate(candidate.taskId());
+            long views = Math.min(candidate.views(), sketchEstimate);
+            long lowerBound = candidate.views() - candidate.maxError();
+            result.add(new ViewCount(candidate.taskId(), views, Math.max(0, views - lowerBound)));
+        }
+        result.sort(BY_VIEWS);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private int cell(int row, int taskId) {
+        int h = taskId * SEEDS[row];
+        h ^= h >>> 15;
+        h *= 0x2C1B3C6D;
+        h ^= h >>> 12;
+        return row * (widthMask + 1) + (h & widthMask);
+    }
+
+    /**
+     * Space-saving: счётчики в массивах, минимум — корень двоичной кучи по числу просмотров,
+     * id → позиция в куче — открытая адресация. Без аллокаций.
+     */
+    private static final class SpaceSaving {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        // Куча: элемент i — задача ids[i] с counts[i] просмотров и погрешностью errors[i]
+        private final int[] ids;
+        private final long[] counts;
+        private final long[] errors;
+        private final int[] keys;
+        private final int[] positions;
+        private final int mask;
+        private int size;
+
+        private SpaceSaving(int capacity) {
+            this.capacity = capacity;
+            this.ids = new int[capacity];
+            this.counts = new long[capacity];
+            this.errors = new long[capacity];
+            int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+            this.keys = new int[tableSize];
+            // Позиция + 1, 0 — пустая ячейка
+            this.positions = new int[tableSize];
+            this.mask = tableSize - 1;
+        }
+
+        void increment(int taskId) {
+            int slot = findSlot(taskId);
+            if (positions[slot] != 0) {
+                int position = positions[slot] - 1;
+                counts[position]++;
+                siftDown(position);
+                return;
+            }
+            if (size < capacity) {
+                int position = size++;
+                set(position, taskId, 1, 0);
+                insert(taskId, position);
+                siftUp(position);
+                return;
+            }
+            // Вытесняем задачу с минимальным счётчиком, её значение становится погрешностью новой
+            deleteKey(ids[0]);
+            long minimum = counts[0];
+            set(0, taskId, minimum + 1, minimum);
+            insert(taskId, 0);
+            siftDown(0);
+        }
+
+        void remove(int taskId) {
+            int slot = findSlot(taskId);
+            if (positions[slot] == 0) {
+                return;
+            }
+            int position = positions[slot] - 1;
+            deleteKey(taskId);
+            int last = --size;
+            if (position == last) {
+                return;
+            }
+            set(position, ids[last], counts[last], errors[last]);
+            positions[findSlot(ids[position])] = position + 1;
+            siftDown(position);
+            siftUp(position);
+        }
+
+        // Наименьший счётчик полной таблицы; пока есть место, ничего не вытеснялось
+        long minimum() {
+            return size < capacity ? 0 : counts[0];
+        }
+
+        void collect(List<ViewCount> target) {
+            for (int i = 0; i < size; i++) {
+                target.add(new ViewCount(ids[i], counts[i], errors[i]));
+            }
+        }
+
+        private void set(int position, int taskId, long count, long error) {
+            ids[position] = taskId;
+            counts[position] = count;
+            errors[position] = error;
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (counts[parent] <= counts[position]) {
+                    return;
+                }
+                swap(position, parent);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                int smallest = position;
+                int left = 2 * position + 1;
+                int right = left + 1;
+                if (left < size && counts[left] < counts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && counts[right] < counts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == position) {
+                    return;
+                }
+                swap(position, smallest);
+                position = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            long count = counts[a];
+            long error = errors[a];
+            set(a, ids[b], counts[b], errors[b]);
+            set(b, id, count, error);
+            positions[findSlot(ids[a])] = a + 1;
+            positions[findSlot(ids[b])] = b + 1;
+        }
+
+        private static int hash(int id) {
+            int h = id * 0x85EBCA6B;
+            return h ^ (h >>> 16);
+        }
+
+        // Ячейка с этим id или пустая ячейка, где он должен быть
+        private int findSlot(int taskId) {
+            int i = hash(taskId) & mask;
+            while (positions[i] != 0 && keys[i] != taskId) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private void insert(int taskId, int position) {
+            int slot = findSlot(taskId);
+            keys[slot] = taskId;
+            positions[slot] = position + 1;
+        }
+
+        // Удаление со сдвигом, как в BoundedHistoryManager
+        private void deleteKey(int taskId) {
+            int gap = findSlot(taskId);
+            for (int j = (gap + 1) & mask; positions[j] != 0; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    positions[gap] = positions[j];
+                    gap = j;
+                }
+            }
+            positions[gap] = 0;
+        }
+    }
+}
@@ -3,6 +3,9 @@ package ru.practicum.tracker.model;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 
@@ -25,18 +28,32 @@ public class Epic extends Task {
         return TaskType.EPIC;
     }
 
+    // Снимок не меняется, поэтому отдаёт свой список без копирования
     public List<Integer> getSubtaskIds() {
-        return new ArrayList<>(subtaskIds);
+        return isFrozen() ? Collections.unmodifiableList(subtaskIds) : new ArrayList<>(subtaskIds);
     }
 
     public void addSubtaskId(int id) {
+        checkMutable();
         if (!subtaskIds.contains(id)) {
             subtaskIds.add(id);
+            modified();
         }
     }
 
+    // Заменяет список подзадач за O(k); повторяющиеся id отбрасываются
+    public void setSubtaskIds(Collection<Integer> ids) {
+        checkMutable();
+        subtaskIds.clear();
+        subtaskIds.addAll(new LinkedHashSet<>(ids));
+        modified();
+    }
+
     public void removeSubtaskId(int id) {
-        subtaskIds.remove((Integer) id);
+        checkMutable();
+        if (subtaskIds.remove((Integer) id)) {
+            modified();
+        }
     }
 
     @Override
@@ -45,7 +62,9 @@ public class Epic extends Task {
     }
 
     public void setEndTime(LocalDateTime endTime) {
+        checkMutable();
         this.endTime = endTime;
+        modified();
     }
 
     @Override
@@ -39,7 +39,9 @@ public class Subtask extends Task {
     }
 
     public void setEpicId(int epicId) {
+        checkMutable();
         this.epicId = epicId;
+        modified();
     }
 
     @Override
@@ -11,6 +11,11 @@ public class Task {
     protected TaskStatus status;
     protected Duration duration;
     protected LocalDateTime startTime;
+    // Закэшированный неизменяемый снимок для истории и номер изменения, с которого он снят;
+    // у самого снимка revision — номер изменения оригинала на момент снятия
+    private transient volatile Task snapshot;
+    private transient volatile int revision;
+    private transient boolean frozen;
 
     // Конструкторы
     public Task() {
@@ -47,7 +52,9 @@ public class Task {
     }
 
     public void setId(int id) {
+        checkMutable();
         this.id = id;
+        modified();
     }
 
     public String getName() {
@@ -55,7 +62,9 @@ public class Task {
     }
 
     public void setName(String name) {
+        checkMutable();
         this.name = name;
+        modified();
     }
 
     public String getDescription() {
@@ -63,7 +72,9 @@ public class Task {
     }
 
     public void setDescription(String description) {
+        checkMutable();
         this.description = description;
+        modified();
     }
 
     public TaskStatus getStatus() {
@@ -71,7 +82,9 @@ public class Task {
     }
 
     public void setStatus(TaskStatus status) {
+        checkMutable();
         this.status = status;
+        modified();
     }
 
     public Duration getDuration() {
@@ -79,7 +92,9 @@ public class Task {
     }
 
     public void setDuration(Duration duration) {
+        checkMutable();
         this.duration = duration;
+        modified();
     }
 
     public LocalDateTime getStartTime() {
@@ -87,7 +102,9 @@ public class Task {
     }
 
     public void setStartTime(LocalDateTime startTime) {
+        checkMutable();
         this.startTime = startTime;
+        modified();
     }
 
     // Расчет времени окончания
@@ -111,6 +128,45 @@ public class Task {
         return copy;
     }
 
+    /**
+     * Неизменяемый снимок задачи. Снимок кэшируется и переиспользуется всеми просмотрами,
+     * пока задача не изменится через сеттер, поэтому повторные просмотры не создают объектов:
+     * копия делается один раз после каждого изменения, а не при каждом чтении.
+     * Сеттеры снимка бросают {@link UnsupportedOperationException}.
+     */
+    public Task snapshot() {
+        if (frozen) {
+            return this;
+        }
+        // Номер читается до полей: снимок не старше номера, с которым кэшируется
+        int current = revision;
+        Task cached = snapshot;
+        if (cached != null && cached.revision == current) {
+            return cached;
+        }
+        Task copy = copy();
+        copy.revision = current;
+        copy.frozen = true;
+        snapshot = copy;
+        return copy;
+    }
+
+    // Вызывается сеттерами до изменения
+    protected void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Снимок задачи нельзя изменить");
+        }
+    }
+
+    // Вызывается сеттерами после изменения: закэшированный снимок устаревает
+    protected void modified() {
+        revision++;
+    }
+
+    protected boolean isFrozen() {
+        return frozen;
+    }
+
     // equals и hashCode
     @Override
     public boolean equals(Object o) {
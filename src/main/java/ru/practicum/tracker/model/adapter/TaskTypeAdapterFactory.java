@@ -0,0 +1,237 @@
+package ru.practicum.tracker.model.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import ru.practicum.tracker.model.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Адаптеры Gson для {@link Task}, {@link Epic} и {@link Subtask} без рефлексии.
+ * <p>
+ * Поля пишутся и читаются напрямую через геттеры и сеттеры, формат совпадает с прежним
+ * рефлективным: duration — минуты, startTime и endTime — ISO-строки. Дополнительно
+ * пишется поле {@code type}. При чтении оно выбирает класс объекта, поэтому в списках
+ * {@code Task} подзадачи и эпики восстанавливаются своими классами; без него используется
+ * запрошенный класс. Тип, не совместимый с запрошенным классом, — ошибка формата.
+ * Отсутствующие поля сохраняют значения конструктора по умолчанию.
+ */
+public class TaskTypeAdapterFactory implements TypeAdapterFactory {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType != Task.class && rawType != Epic.class && rawType != Subtask.class) {
+            return null;
+        }
+        return (TypeAdapter<T>) new TaskAdapter((Class<? extends Task>) rawType).nullSafe();
+    }
+
+    private static final class TaskAdapter extends TypeAdapter<Task> {
+        private final Class<? extends Task> expected;
+
+        private TaskAdapter(Class<? extends Task> expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void write(JsonWriter out, Task task) throws IOException {
+            out.beginObject();
+            out.name("type").value(task.getType().name());
+            out.name("id").value(task.getId());
+            out.name("name").value(task.getName());
+            out.name("description").value(task.getDescription());
+            out.name("status").value(task.getStatus() == null ? null : task.getStatus().name());
+            Duration duration = task.getDuration();
+            out.name("duration");
+            if (duration == null) {
+                out.nullValue();
+            } else {
+                out.value(duration.toMinutes());
+            }
+            writeDateTime(out, "startTime", task.getStartTime());
+            if (task instanceof Subtask subtask) {
+                out.name("epicId").value(subtask.getEpicId());
+            } else if (task instanceof Epic epic) {
+                out.name("subtaskIds").beginArray();
+                for (Integer id : epic.getSubtaskIds()) {
+                    out.value(id);
+                }
+                out.endArray();
+                writeDateTime(out, "endTime", epic.getEndTime());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Task read(JsonReader in) throws IOException {
+            // Поле type может идти в любом месте объекта, поэтому значения собираются
+            // в локальные переменные, а объект создаётся после разбора
+            TaskType type = null;
+            Integer id = null;
+            String name = null;
+            String description = null;
+            TaskStatus status = null;
+            Duration duration = null;
+            LocalDateTime startTime = null;
+            LocalDateTime endTime = null;
+            Integer epicId = null;
+            List<Integer> subtaskIds = null;
+            boolean hasName = false;
+            boolean hasDescription = false;
+            boolean hasStatus = false;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    switch (field) {
+                        case "name" -> hasName = true;
+                        case "description" -> hasDescription = true;
+                        case "status" -> hasStatus = true;
+                        default -> {
+                        }
+                    }
+                    continue;
+                }
+                try {
+                    switch (field) {
+                        case "type" -> type = parseType(in.nextString());
+                        case "id" -> id = in.nextInt();
+                        case "name" -> {
+                            name = in.nextString();
+                            hasName = true;
+                        }
+                        case "description" -> {
+                            description = in.nextString();
+                            hasDescription = true;
+                        }
+                        case "status" -> {
+                            status = parseStatus(in.nextString());
+                            hasStatus = true;
+                        }
+                        case "duration" -> duration = Duration.ofMinutes(in.nextLong());
+                        case "startTime" -> startTime = parseDateTime(in.nextString());
+                        case "endTime" -> endTime = parseDateTime(in.nextString());
+                        case "epicId" -> epicId = in.nextInt();
+                        case "subtaskIds" -> {
+                            subtaskIds = new ArrayList<>();
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                subtaskIds.add(in.nextInt());
+                            }
+                            in.endArray();
+                        }
+                        default -> in.skipValue();
+                    }
+                } catch (NumberFormatException e) {
+                    throw new JsonSyntaxException("Некорректное число в поле " + field, e);
+                }
+            }
+            in.endObject();
+
+            Task task = newInstance(type);
+            if (id != null) {
+                task.setId(id);
+            }
+            if (hasName) {
+                task.setName(name);
+            }
+            if (hasDescription) {
+                task.setDescription(description);
+            }
+            if (hasStatus) {
+                task.setStatus(status);
+            }
+            if (duration != null) {
+                task.setDuration(duration);
+            }
+            if (startTime != null) {
+                task.setStartTime(startTime);
+            }
+            if (task instanceof Subtask subtask && epicId != null) {
+                subtask.setEpicId(epicId);
+            }
+            if (task instanceof Epic epic) {
+                if (subtaskIds != null) {
+                    epic.setSubtaskIds(subtaskIds);
+                }
+                if (endTime != null) {
+                    epic.setEndTime(endTime);
+                }
+            }
+            return task;
+        }
+
+        private Task newInstance(TaskType type) {
+            Class<? extends Task> target = type == null ? expected : switch (type) {
+                case TASK -> Task.class;
+                case EPIC -> Epic.class;
+                case SUBTASK -> Subtask.class;
+            };
+            if (!expected.isAssignableFrom(target)) {
+                throw new JsonSyntaxException("Тип " + type + " не соответствует " + expected.getSimpleName());
+            }
+            if (target == Epic.class) {
+                return new Epic();
+            }
+            if (target == Subtask.class) {
+                return new Subtask();
+            }
+            return new Task();
+        }
+    }
+
+    private static void writeDateTime(JsonWriter out, String name, LocalDateTime value) throws IOException {
+        out.name(name);
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(value.format(FORMATTER));
+        }
+    }
+
+    private static TaskType parseType(String value) {
+        for (TaskType type : TYPES) {
+            if (type.name().equals(value)) {
+                return type;
+            }
+        }
+        throw new JsonSyntaxException("Неизвестный тип задачи: " + value);
+    }
+
+    // Как и стандартный адаптер перечислений Gson, неизвестный статус даёт null
+    private static TaskStatus parseStatus(String value) {
+        for (TaskStatus status : STATUSES) {
+            if (status.name().equals(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value, FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new JsonSyntaxException("Некорректная дата: " + value, e);
+        }
+    }
+}
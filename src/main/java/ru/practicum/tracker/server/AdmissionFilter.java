@@ -0,0 +1,127 @@
+package ru.practicum.tracker.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничение числа одновременно обрабатываемых запросов.
+ * <p>
+ * Чтения (GET, HEAD) и изменения ограничиваются раздельно, чтобы поток записей не вытеснял
+ * чтения и наоборот. Запрос сверх лимита ждёт в короткой очереди не дольше заданного времени;
+ * если очередь заполнена или время вышло, сразу отвечаем 503 с заголовком Retry-After,
+ * не накапливая задержку и память под нагрузкой.
+ * <p>
+ * Фильтр выполняется в потоке исполнителя сервера, поэтому лучше всего работает с VIRTUAL:
+ * у пулов PLATFORM_POOL и SINGLE собственная неограниченная очередь находится перед фильтром.
+ */
+public class AdmissionFilter extends Filter {
+    private static final byte[] UNAVAILABLE_BODY = "{\"error\":\"Сервер перегружен, повторите запрос позже\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final Limit readLimit;
+    private final Limit writeLimit;
+    private final String retryAfter;
+    private final LongAdder rejected = new LongAdder();
+
+    public AdmissionFilter(ServerConfig config) {
+        this.readLimit = Limit.of(config.getReadMaxInFlight(), config.getReadMaxQueued(),
+                config.getAdmissionQueueTimeoutMillis());
+        this.writeLimit = Limit.of(config.getWriteMaxInFlight(), config.getWriteMaxQueued(),
+                config.getAdmissionQueueTimeoutMillis());
+        this.retryAfter = String.valueOf(config.getRetryAfterSeconds());
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        Limit limit = isRead(exchange.getRequestMethod()) ? readLimit : writeLimit;
+        if (limit == null) {
+            chain.doFilter(exchange);
+            return;
+        }
+        boolean admitted;
+        try {
+            admitted = limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            reject(exchange);
+            return;
+        }
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            limit.release();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Ограничение одновременных запросов";
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private void reject(HttpExchange exchange) throws IOException {
+        rejected.increment();
+        exchange.getResponseHeaders().set("Retry-After", retryAfter);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(503, UNAVAILABLE_BODY.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(UNAVAILABLE_BODY);
+        }
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    // Лимит одного класса запросов: разрешения на обработку и счётчик ожидающих
+    private static final class Limit {
+        private final Semaphore permits;
+        private final int maxQueued;
+        private final long queueTimeoutMillis;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private Limit(int maxInFlight, int maxQueued, long queueTimeoutMillis) {
+            this.permits = new Semaphore(maxInFlight);
+            this.maxQueued = maxQueued;
+            this.queueTimeoutMillis = queueTimeoutMillis;
+        }
+
+        // 0 — без ограничения
+        static Limit of(int maxInFlight, int maxQueued, long queueTimeoutMillis) {
+            return maxInFlight == 0 ? null : new Limit(maxInFlight, maxQueued, queueTimeoutMillis);
+        }
+
+        boolean acquire() throws InterruptedException {
+            if (permits.tryAcquire()) {
+                return true;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return false;
+            }
+            try {
+                return permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+    }
+}
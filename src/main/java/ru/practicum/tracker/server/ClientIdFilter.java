@@ -0,0 +1,51 @@
+package ru.practicum.tracker.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.tracker.history.ClientContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Передаёт идентификатор клиента из заголовка {@value #HEADER} в {@link ClientContext}
+ * на время обработки запроса. Без заголовка клиент не задаётся, и история общая.
+ * Идентификатор ограничен по длине и набору символов, чтобы ключи разделов истории
+ * не раздували память; некорректный заголовок — ошибка 400.
+ */
+public class ClientIdFilter extends Filter {
+    public static final String HEADER = "X-Client-Id";
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+    private static final byte[] INVALID_BODY = "{\"error\":\"Некорректный идентификатор клиента\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String clientId = exchange.getRequestHeaders().getFirst(HEADER);
+        if (clientId == null) {
+            chain.doFilter(exchange);
+            return;
+        }
+        if (!VALID_ID.matcher(clientId).matches()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(400, INVALID_BODY.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(INVALID_BODY);
+            }
+            return;
+        }
+        ClientContext.set(clientId);
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            ClientContext.clear();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Идентификатор клиента для истории просмотров";
+    }
+}
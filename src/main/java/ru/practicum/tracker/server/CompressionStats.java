@@ -0,0 +1,45 @@
+package ru.practicum.tracker.server;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики сжатия ответов: сколько ответов ушло в gzip, их размер до и после сжатия
+ * и время, потраченное на сжатие. Для потоковых ответов время включает и запись в сокет,
+ * потому что сжатые данные отправляются по мере готовности.
+ */
+public class CompressionStats {
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder originalBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+
+    public void record(long original, long compressed, long nanos) {
+        responses.increment();
+        originalBytes.add(original);
+        compressedBytes.add(compressed);
+        compressionNanos.add(nanos);
+    }
+
+    public long getCompressedResponses() {
+        return responses.sum();
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes.sum();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    // Доля размера после сжатия: 0.2 — ответы стали в пять раз меньше; 1.0, если сжатий не было
+    public double getCompressionRatio() {
+        long original = originalBytes.sum();
+        return original == 0 ? 1.0 : (double) compressedBytes.sum() / original;
+    }
+
+    public Duration getCompressionTime() {
+        return Duration.ofNanos(compressionNanos.sum());
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.tracker.server;
+
+public enum ExecutorType {
+    // Один поток обработки: запросы выполняются строго по очереди
+    SINGLE,
+    // Пул платформенных потоков фиксированного размера
+    PLATFORM_POOL,
+    // Отдельный виртуальный поток на каждый запрос
+    VIRTUAL
+}
@@ -1,39 +1,76 @@
 package ru.practicum.tracker.server;
 
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpServer;
 import ru.practicum.tracker.server.handlers.*;
+import ru.practicum.tracker.service.ConcurrentTaskManager;
 import ru.practicum.tracker.service.TaskManager;
 import ru.practicum.tracker.util.Managers;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpTaskServer {
-    private static final int PORT = 8080;
+    // Свойство читается встроенным HTTP-сервером один раз, при создании первого сервера в JVM
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    // История ведётся отдельно для каждого клиента с заголовком X-Client-Id; разделы клиентов,
+    // не обращавшихся дольше HISTORY_IDLE_TIMEOUT, удаляются попутно с обработкой запросов
+    private static final int HISTORY_PARTITIONS = 1_024;
+    private static final int HISTORY_CAPACITY = 1_000;
+    private static final Duration HISTORY_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
     private final HttpServer server;
     private final TaskManager manager;
+    private final ServerConfig config;
+    private final ExecutorService executor;
+    private final AdmissionFilter admissionFilter;
+    private final CompressionStats compressionStats = new CompressionStats();
+    private final ClientIdFilter clientIdFilter = new ClientIdFilter();
 
     public HttpTaskServer() throws IOException {
         this(Managers.getDefault());
     }
 
     public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, new ServerConfig());
+    }
+
+    public HttpTaskServer(TaskManager manager, ServerConfig config) throws IOException {
         this.manager = manager;
-        server = HttpServer.create(new InetSocketAddress(PORT), 0);
-        server.createContext("/tasks", new TaskHandler(manager));
-        server.createContext("/subtasks", new SubtaskHandler(manager));
-        server.createContext("/epics", new EpicHandler(manager));
-        server.createContext("/history", new HistoryHandler(manager));
-        server.createContext("/prioritized", new PrioritizedHandler(manager));
+        this.config = config;
+        server = HttpServer.create(new InetSocketAddress(config.getPort()), config.getBacklog());
+        admissionFilter = new AdmissionFilter(config);
+        createContext("/tasks", new TaskHandler(manager));
+        createContext("/subtasks", new SubtaskHandler(manager));
+        createContext("/epics", new EpicHandler(manager));
+        createContext("/history", new HistoryHandler(manager));
+        createContext("/prioritized", new PrioritizedHandler(manager));
+        executor = createExecutor(config);
+        server.setExecutor(executor);
     }
 
     public void start() {
         server.start();
-        System.out.println("HTTP-сервер запущен на порту " + PORT);
+        System.out.println("HTTP-сервер запущен на порту " + getPort() + " (" + config.getExecutorType() + ")");
     }
 
     public void stop() {
         server.stop(0);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
         System.out.println("HTTP-сервер остановлен");
     }
 
@@ -41,8 +78,59 @@ public class HttpTaskServer {
         return manager;
     }
 
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public AdmissionFilter getAdmissionFilter() {
+        return admissionFilter;
+    }
+
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
+    private void createContext(String path, BaseHttpHandler handler) {
+        handler.configure(config, compressionStats);
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(admissionFilter);
+        context.getFilters().add(clientIdFilter);
+    }
+
+    private static ExecutorService createExecutor(ServerConfig config) {
+        return switch (config.getExecutorType()) {
+            case SINGLE -> Executors.newSingleThreadExecutor(namedThreads("http-worker"));
+            case PLATFORM_POOL -> Executors.newFixedThreadPool(config.getPoolSize(), namedThreads("http-worker"));
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("http-virtual-", 0).factory());
+        };
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
     public static void main(String[] args) throws IOException {
-        HttpTaskServer server = new HttpTaskServer();
+        ServerConfig config = new ServerConfig();
+        config.setExecutorType(ExecutorType.VIRTUAL);
+        int cores = Runtime.getRuntime().availableProcessors();
+        config.setReadMaxInFlight(cores * 8);
+        config.setReadMaxQueued(cores * 16);
+        config.setWriteMaxInFlight(cores * 2);
+        config.setWriteMaxQueued(cores * 8);
+        config.setTcpNoDelay(true);
+        // Настройка действует на всю JVM, поэтому задаётся только здесь, до создания сервера
+        if (config.isTcpNoDelay() && System.getProperty(NO_DELAY_PROPERTY) == null) {
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+        TaskManager manager = new ConcurrentTaskManager(Managers.withViewStatistics(
+                Managers.getPartitionedHistory(HISTORY_PARTITIONS, HISTORY_CAPACITY, HISTORY_IDLE_TIMEOUT)));
+        HttpTaskServer server = new HttpTaskServer(manager, config);
         server.start();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,192 @@
+package ru.practicum.tracker.server;
+
+/**
+ * Настройки {@link HttpTaskServer}.
+ * <p>
+ * По умолчанию запросы обрабатываются одним потоком, как и раньше: это безопасно для любого
+ * менеджера. Типы PLATFORM_POOL и VIRTUAL обрабатывают запросы параллельно и требуют
+ * потокобезопасного менеджера (например, {@code Managers.getConcurrent()}).
+ */
+public class ServerConfig {
+    public static final int DEFAULT_PORT = 8080;
+    public static final long DEFAULT_MAX_REQUEST_BODY_BYTES = 1024 * 1024;
+    public static final long DEFAULT_RESPONSE_CACHE_MAX_BYTES = 4 * 1024 * 1024;
+    public static final int DEFAULT_COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    private int port = DEFAULT_PORT;
+    // 0 — размер очереди соединений выбирает система
+    private int backlog = 0;
+    private ExecutorType executorType = ExecutorType.SINGLE;
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+    private boolean tcpNoDelay = false;
+    // Ограничения одновременных запросов; 0 — без ограничения
+    private int readMaxInFlight = 0;
+    private int readMaxQueued = 0;
+    private int writeMaxInFlight = 0;
+    private int writeMaxQueued = 0;
+    private long admissionQueueTimeoutMillis = 50;
+    private int retryAfterSeconds = 1;
+    private long maxRequestBodyBytes = DEFAULT_MAX_REQUEST_BODY_BYTES;
+    // Предельный размер одного закэшированного ответа; 0 — кэш выключен
+    private long responseCacheMaxBytes = DEFAULT_RESPONSE_CACHE_MAX_BYTES;
+    // gzip для клиентов с Accept-Encoding: gzip; ответы не больше порога не сжимаются
+    private boolean compressionEnabled = true;
+    private int compressionThresholdBytes = DEFAULT_COMPRESSION_THRESHOLD_BYTES;
+
+    public int getPort() {
+        return port;
+    }
+
+    // 0 — свободный порт, выбранный системой; фактический порт возвращает HttpTaskServer.getPort()
+    public void setPort(int port) {
+        if (port < 0 || port > 65_535) {
+            throw new IllegalArgumentException("Некорректный номер порта: " + port);
+        }
+        this.port = port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        if (backlog < 0) {
+            throw new IllegalArgumentException("Размер очереди соединений не может быть отрицательным");
+        }
+        this.backlog = backlog;
+    }
+
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
+    public void setExecutorType(ExecutorType executorType) {
+        this.executorType = executorType;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    // Число потоков для PLATFORM_POOL
+    public void setPoolSize(int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Размер пула должен быть положительным");
+        }
+        this.poolSize = poolSize;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    // Отключает алгоритм Нейгла: иначе заголовки и тело ответа, записанные раздельно,
+    // ждут отложенного ACK клиента (~40 мс на запрос). Это свойство JVM sun.net.httpserver.nodelay,
+    // общее для всех серверов процесса; конструктор его не меняет, применяет только HttpTaskServer.main
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public int getReadMaxInFlight() {
+        return readMaxInFlight;
+    }
+
+    // Сколько чтений (GET, HEAD) обрабатывается одновременно; 0 — без ограничения
+    public void setReadMaxInFlight(int readMaxInFlight) {
+        this.readMaxInFlight = nonNegative(readMaxInFlight);
+    }
+
+    public int getReadMaxQueued() {
+        return readMaxQueued;
+    }
+
+    // Сколько чтений может ждать освобождения сверх лимита, прежде чем сервер ответит 503
+    public void setReadMaxQueued(int readMaxQueued) {
+        this.readMaxQueued = nonNegative(readMaxQueued);
+    }
+
+    public int getWriteMaxInFlight() {
+        return writeMaxInFlight;
+    }
+
+    // Сколько изменений (POST, DELETE и прочие) обрабатывается одновременно; 0 — без ограничения
+    public void setWriteMaxInFlight(int writeMaxInFlight) {
+        this.writeMaxInFlight = nonNegative(writeMaxInFlight);
+    }
+
+    public int getWriteMaxQueued() {
+        return writeMaxQueued;
+    }
+
+    public void setWriteMaxQueued(int writeMaxQueued) {
+        this.writeMaxQueued = nonNegative(writeMaxQueued);
+    }
+
+    public long getAdmissionQueueTimeoutMillis() {
+        return admissionQueueTimeoutMillis;
+    }
+
+    // Сколько запрос в очереди ждёт освобождения, прежде чем получить 503
+    public void setAdmissionQueueTimeoutMillis(long admissionQueueTimeoutMillis) {
+        if (admissionQueueTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Время ожидания не может быть отрицательным");
+        }
+        this.admissionQueueTimeoutMillis = admissionQueueTimeoutMillis;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    // Значение заголовка Retry-After в ответе 503
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = nonNegative(retryAfterSeconds);
+    }
+
+    public long getMaxRequestBodyBytes() {
+        return maxRequestBodyBytes;
+    }
+
+    // Запросы с телом больше этого размера отклоняются с кодом 413
+    public void setMaxRequestBodyBytes(long maxRequestBodyBytes) {
+        if (maxRequestBodyBytes <= 0) {
+            throw new IllegalArgumentException("Максимальный размер тела должен быть положительным");
+        }
+        this.maxRequestBodyBytes = maxRequestBodyBytes;
+    }
+
+    public long getResponseCacheMaxBytes() {
+        return responseCacheMaxBytes;
+    }
+
+    public void setResponseCacheMaxBytes(long responseCacheMaxBytes) {
+        if (responseCacheMaxBytes < 0) {
+            throw new IllegalArgumentException("Размер кэша ответов не может быть отрицательным");
+        }
+        this.responseCacheMaxBytes = responseCacheMaxBytes;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public int getCompressionThresholdBytes() {
+        return compressionThresholdBytes;
+    }
+
+    // Столько байт ответа буферизуется, прежде чем решить, сжимать ли его
+    public void setCompressionThresholdBytes(int compressionThresholdBytes) {
+        this.compressionThresholdBytes = nonNegative(compressionThresholdBytes);
+    }
+
+    private static int nonNegative(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Значение не может быть отрицательным: " + value);
+        }
+        return value;
+    }
+}
@@ -1,36 +1,266 @@
 package ru.practicum.tracker.server.handlers;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import ru.practicum.tracker.server.CompressionStats;
+import ru.practicum.tracker.server.ServerConfig;
 import ru.practicum.tracker.util.GsonUtils;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 public abstract class BaseHttpHandler implements HttpHandler {
     protected static final Gson GSON = GsonUtils.getGson();
+    private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+    // Версии хранилища начинаются заново при перезапуске, поэтому ETag включает метку запуска
+    private static final String ETAG_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private long maxRequestBodyBytes = ServerConfig.DEFAULT_MAX_REQUEST_BODY_BYTES;
+    private ResponseCache responseCache = new ResponseCache(ServerConfig.DEFAULT_RESPONSE_CACHE_MAX_BYTES);
+    // Ответы больше порога сжимаются для клиентов с Accept-Encoding: gzip; -1 — сжатие выключено
+    private int compressionThreshold = -1;
+    private CompressionStats compressionStats = new CompressionStats();
+
+    // Применяет настройки сервера; вызывается до регистрации обработчика
+    public void configure(ServerConfig config, CompressionStats compressionStats) {
+        this.maxRequestBodyBytes = config.getMaxRequestBodyBytes();
+        this.responseCache = new ResponseCache(config.getResponseCacheMaxBytes());
+        this.compressionThreshold = config.isCompressionEnabled() ? config.getCompressionThresholdBytes() : -1;
+        this.compressionStats = compressionStats;
+    }
 
     protected String readRequest(HttpExchange exchange) throws IOException {
-        InputStream input = exchange.getRequestBody();
+        InputStream input = limitedBody(exchange);
         return new String(input.readAllBytes(), StandardCharsets.UTF_8);
     }
 
+    /**
+     * Разбирает JSON прямо из тела запроса, не собирая его в строку. Пустое тело даёт null.
+     * Размер тела проверяется по Content-Length и по ходу чтения.
+     *
+     * @throws RequestTooLargeException если тело больше допустимого размера
+     * @throws JsonSyntaxException      если тело не является корректным JSON
+     */
+    protected <T> T readJson(HttpExchange exchange, Class<T> type) throws IOException {
+        LimitedInputStream input = limitedBody(exchange);
+        JsonReader reader = GSON.newJsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            T value = GSON.fromJson(reader, type);
+            if (value != null && reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("После JSON-документа есть лишние данные");
+            }
+            return value;
+        } catch (JsonParseException | IOException e) {
+            if (input.isExceeded()) {
+                throw new RequestTooLargeException(maxRequestBodyBytes);
+            }
+            if (e instanceof MalformedJsonException) {
+                throw new JsonSyntaxException(e);
+            }
+            throw e;
+        }
+    }
+
+    private LimitedInputStream limitedBody(HttpExchange exchange) throws RequestTooLargeException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.trim()) > maxRequestBodyBytes) {
+                    throw new RequestTooLargeException(maxRequestBodyBytes);
+                }
+            } catch (NumberFormatException e) {
+                // Некорректный заголовок: размер проверится при чтении
+            }
+        }
+        return new LimitedInputStream(exchange.getRequestBody(), maxRequestBodyBytes);
+    }
+
     protected void sendText(HttpExchange exchange, String text) throws IOException {
         sendText(exchange, text, 200);
     }
 
     protected void sendText(HttpExchange exchange, String text, int statusCode) throws IOException {
-        byte[] response = text.getBytes(StandardCharsets.UTF_8);
+        sendBody(exchange, statusCode, text.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    /**
+     * Пишет JSON-массив прямо в тело ответа с chunked-кодированием: без промежуточной строки
+     * и массива байт, первые элементы уходят клиенту до окончания сериализации.
+     * Элементы сериализуются по фактическому типу, как и при {@code GSON.toJson(list)}.
+     */
+    protected void sendJsonList(HttpExchange exchange, Iterable<?> items) throws IOException {
+        writeJsonList(openListBody(exchange), items);
+    }
+
+    /**
+     * Отдаёт список из кэша, если он построен для той же версии данных; иначе выдаёт его
+     * потоком, как {@link #sendJsonList}, и сохраняет копию тела в кэш.
+     * Версию нужно прочитать до чтения данных, как и для {@link #sendNotModifiedIfMatches}.
+     */
+    protected void sendCachedJsonList(HttpExchange exchange, String key, long version,
+                                      Supplier<? extends Iterable<?>> items) throws IOException {
+        if (!responseCache.isEnabled()) {
+            sendJsonList(exchange, items.get());
+            return;
+        }
+        ResponseCache.Entry cached = responseCache.get(key, version);
+        if (cached != null) {
+            sendBody(exchange, 200, cached.body(), cached);
+            return;
+        }
+        // В кэш попадает несжатое тело: копия снимается до GzipResponseStream
+        ResponseCache.CapturingStream capture = responseCache.capture(openListBody(exchange));
+        writeJsonList(capture, items.get());
+        byte[] body = capture.captured();
+        if (body != null) {
+            responseCache.put(key, version, body);
+        }
+    }
+
+    // Отправляет тело известной длины, сжимая его, если клиент принимает gzip и тело больше порога
+    private void sendBody(HttpExchange exchange, int statusCode, byte[] body, ResponseCache.Entry cached)
+            throws IOException {
         exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        byte[] response = body;
+        if (acceptsCompression(exchange) && body.length > compressionThreshold) {
+            response = cached == null ? null : cached.gzipped();
+            if (response == null) {
+                long start = System.nanoTime();
+                response = gzip(body);
+                compressionStats.record(body.length, response.length, System.nanoTime() - start);
+                if (cached != null) {
+                    cached.setGzipped(response);
+                }
+            } else {
+                compressionStats.record(body.length, response.length, 0);
+            }
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
         exchange.sendResponseHeaders(statusCode, response.length);
         try (OutputStream os = exchange.getResponseBody()) {
             os.write(response);
         }
     }
 
+    // Тело списка неизвестной длины; сжатие включается, только когда ответ перерастает порог
+    private OutputStream openListBody(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        if (acceptsCompression(exchange)) {
+            return new GzipResponseStream(exchange, compressionThreshold, compressionStats);
+        }
+        exchange.sendResponseHeaders(200, 0);
+        return exchange.getResponseBody();
+    }
+
+    // Заодно выставляет Vary, чтобы промежуточные кэши различали сжатый и несжатый ответы
+    private boolean acceptsCompression(HttpExchange exchange) {
+        if (compressionThreshold < 0) {
+            return false;
+        }
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equalsIgnoreCase("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim().replace(" ", "");
+                if (parameter.startsWith("q=") && parameter.substring(2).matches("0(\\.0{0,3})?")) {
+                    rejected = true;
+                }
+            }
+            return !rejected;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer, 8 * 1024)) {
+            gzip.write(body);
+        }
+        return buffer.toByteArray();
+    }
+
+    // При ошибке поток не закрывается: иначе chunked-ответ завершится и обрезанное тело сойдёт за полное
+    private void writeJsonList(OutputStream target, Iterable<?> items) throws IOException {
+        JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(target, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE));
+        writer.beginArray();
+        for (Object item : items) {
+            if (item == null) {
+                writer.nullValue();
+            } else {
+                GSON.toJson(item, item.getClass(), writer);
+            }
+        }
+        writer.endArray();
+        writer.close();
+    }
+
+    /**
+     * Выставляет ETag по версии данных и, если он совпадает с If-None-Match, отвечает 304.
+     * Версию нужно прочитать до чтения данных: тогда при гонке с изменением клиент получит
+     * новые данные со старым ETag и просто перезапросит их, но никогда не наоборот.
+     *
+     * @return true, если ответ 304 уже отправлен
+     */
+    protected boolean sendNotModifiedIfMatches(HttpExchange exchange, long version) throws IOException {
+        String etag = "W/\"" + ETAG_EPOCH + "-" + version + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !matchesAny(ifNoneMatch, etag)) {
+            return false;
+        }
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    // Слабое сравнение из RFC 9110: префикс W/ не учитывается
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void sendPayloadTooLarge(HttpExchange exchange) throws IOException {
+        sendText(exchange, GSON.toJson(new ErrorResponse("Слишком большое тело запроса")), 413);
+    }
+
     protected void sendNotFound(HttpExchange exchange) throws IOException {
         exchange.sendResponseHeaders(404, 0);
         exchange.close();
@@ -41,7 +271,15 @@ public abstract class BaseHttpHandler implements HttpHandler {
         sendText(exchange, response, 400);
     }
 
-    protected void sendInternalError(HttpExchange exchange) throws IOException {
+    /**
+     * Отвечает 500. Если заголовки уже ушли клиенту (сбой посреди потоковой выдачи списка),
+     * заменить ответ нельзя: исключение пробрасывается серверу, и тот разрывает соединение,
+     * так что клиент видит оборванный ответ, а не обрезанный JSON с кодом 200.
+     */
+    protected void sendInternalError(HttpExchange exchange, Exception cause) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            throw new IOException("Ошибка после отправки заголовков ответа", cause);
+        }
         exchange.sendResponseHeaders(500, 0);
         exchange.close();
     }
@@ -65,4 +303,46 @@ public abstract class BaseHttpHandler implements HttpHandler {
             this.error = error;
         }
     }
-}
\ No newline at end of file
+
+    // Поток тела запроса, который прерывает чтение после превышения лимита
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long read;
+        private boolean exceeded;
+
+        LimitedInputStream(InputStream input, long limit) {
+            super(input);
+            this.limit = limit;
+        }
+
+        boolean isExceeded() {
+            return exceeded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                count(count);
+            }
+            return count;
+        }
+
+        private void count(int bytes) throws RequestTooLargeException {
+            read += bytes;
+            if (read > limit) {
+                exceeded = true;
+                throw new RequestTooLargeException(limit);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import ru.practicum.tracker.model.Epic;
 import ru.practicum.tracker.model.Subtask;
+import ru.practicum.tracker.model.TaskType;
 import ru.practicum.tracker.service.TaskManager;
 
 import java.io.IOException;
@@ -51,12 +52,16 @@ public class EpicHandler extends BaseHttpHandler {
                     sendNotFound(exchange);
             }
         } catch (Exception e) {
-            sendInternalError(exchange);
+            sendInternalError(exchange, e);
         }
     }
 
     private void handleGetAllEpics(HttpExchange exchange) throws IOException {
-        sendText(exchange, GSON.toJson(manager.getAllEpics()));
+        long version = manager.getVersion(TaskType.EPIC);
+        if (sendNotModifiedIfMatches(exchange, version)) {
+            return;
+        }
+        sendCachedJsonList(exchange, "epics", version, manager::getAllEpics);
     }
 
     private void handleGetEpicById(HttpExchange exchange, String idString) throws IOException {
@@ -86,14 +91,13 @@ public class EpicHandler extends BaseHttpHandler {
             sendNotFound(exchange);
         } else {
             List<Subtask> subtasks = manager.getEpicSubtasks(id);
-            sendText(exchange, GSON.toJson(subtasks));
+            sendJsonList(exchange, subtasks);
         }
     }
 
     private void handleCreateOrUpdateEpic(HttpExchange exchange) throws IOException {
         try {
-            String body = readRequest(exchange);
-            Epic epic = GSON.fromJson(body, Epic.class);
+            Epic epic = readJson(exchange, Epic.class);
 
             if (epic == null) {
                 sendBadRequest(exchange, "Неверный формат эпика");
@@ -107,10 +111,12 @@ public class EpicHandler extends BaseHttpHandler {
                 manager.updateEpic(epic);
                 sendText(exchange, GSON.toJson(epic));
             }
+        } catch (RequestTooLargeException e) {
+            sendPayloadTooLarge(exchange);
         } catch (JsonSyntaxException e) {
             sendBadRequest(exchange, "Неверный формат JSON");
         } catch (Exception e) {
-            sendInternalError(exchange);
+            sendInternalError(exchange, e);
         }
     }
 
@@ -0,0 +1,129 @@
+package ru.practicum.tracker.server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.tracker.server.CompressionStats;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Тело ответа неизвестной длины для клиента, принимающего gzip.
+ * <p>
+ * Первые {@code threshold} байт копятся в буфере. Если ответ в него уместился, он уходит
+ * несжатым с Content-Length; как только порог превышен, отправляются заголовки
+ * с Content-Encoding: gzip, и остаток сжимается потоком по мере записи. Буфер растёт по мере
+ * записи, а не выделяется сразу на весь порог: небольшие ответы, которых большинство, занимают
+ * столько памяти, сколько в них байт. Пул буферов на поток не используется: с исполнителем
+ * на виртуальных потоках, с которым запускается сервер, каждый запрос обрабатывается новым
+ * потоком, и переиспользовать было бы нечего.
+ */
+final class GzipResponseStream extends OutputStream {
+    private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+    private static final int INITIAL_PENDING_SIZE = 512;
+
+    private final HttpExchange exchange;
+    private final CompressionStats stats;
+    private final int threshold;
+    private byte[] pending = new byte[0];
+    private int pendingCount;
+    private CountingStream wire;
+    private GZIPOutputStream gzip;
+    private long originalBytes;
+    private long compressionNanos;
+    private boolean closed;
+
+    GzipResponseStream(HttpExchange exchange, int threshold, CompressionStats stats) {
+        this.exchange = exchange;
+        this.stats = stats;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+        if (gzip == null) {
+            int needed = pendingCount + length;
+            if (needed <= threshold) {
+                if (needed > pending.length) {
+                    int grown = Math.max(needed, Math.max(INITIAL_PENDING_SIZE, pending.length * 2));
+                    pending = Arrays.copyOf(pending, Math.min(threshold, grown));
+                }
+                System.arraycopy(buffer, offset, pending, pendingCount, length);
+                pendingCount += length;
+                return;
+            }
+            startCompression();
+        }
+        compress(buffer, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (gzip != null) {
+            gzip.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (gzip == null) {
+            exchange.sendResponseHeaders(200, pendingCount == 0 ? -1 : pendingCount);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(pending, 0, pendingCount);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        gzip.finish();
+        compressionNanos += System.nanoTime() - start;
+        gzip.close();
+        stats.record(originalBytes, wire.count, compressionNanos);
+    }
+
+    private void startCompression() throws IOException {
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(200, 0);
+        wire = new CountingStream(exchange.getResponseBody());
+        gzip = new GZIPOutputStream(wire, GZIP_BUFFER_SIZE);
+        compress(pending, 0, pendingCount);
+    }
+
+    private void compress(byte[] buffer, int offset, int length) throws IOException {
+        long start = System.nanoTime();
+        gzip.write(buffer, offset, length);
+        compressionNanos += System.nanoTime() - start;
+        originalBytes += length;
+    }
+
+    // Считает байты, ушедшие в ответ после сжатия
+    private static final class CountingStream extends FilterOutputStream {
+        private long count;
+
+        private CountingStream(OutputStream target) {
+            super(target);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+    }
+}
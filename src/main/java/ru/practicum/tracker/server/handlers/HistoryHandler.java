@@ -6,6 +6,9 @@ import ru.practicum.tracker.service.TaskManager;
 import java.io.IOException;
 
 public class HistoryHandler extends BaseHttpHandler {
+    private static final int DEFAULT_TOP_LIMIT = 10;
+    private static final int MAX_TOP_LIMIT = 100;
+
     private final TaskManager manager;
 
     public HistoryHandler(TaskManager manager) {
@@ -15,17 +18,46 @@ public class HistoryHandler extends BaseHttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try {
-            if ("GET".equals(exchange.getRequestMethod())) {
+            String path = exchange.getRequestURI().getPath();
+            String[] pathParts = path.split("/");
+
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendNotFound(exchange);
+            } else if (pathParts.length == 2) {
                 handleGetHistory(exchange);
+            } else if (pathParts.length == 3 && "top".equals(pathParts[2])) {
+                handleGetMostViewed(exchange);
             } else {
                 sendNotFound(exchange);
             }
         } catch (Exception e) {
-            sendInternalError(exchange);
+            sendInternalError(exchange, e);
         }
     }
 
     private void handleGetHistory(HttpExchange exchange) throws IOException {
-        sendText(exchange, GSON.toJson(manager.getHistory()));
+        sendJsonList(exchange, manager.getHistory());
+    }
+
+    // GET /history/top?limit=N — самые просматриваемые задачи с оценкой числа просмотров
+    private void handleGetMostViewed(HttpExchange exchange) throws IOException {
+        int limit = parseLimit(exchange.getRequestURI().getQuery());
+        if (limit <= 0 || limit > MAX_TOP_LIMIT) {
+            sendBadRequest(exchange, "Параметр limit должен быть от 1 до " + MAX_TOP_LIMIT);
+            return;
+        }
+        sendJsonList(exchange, manager.getMostViewed(limit));
+    }
+
+    private int parseLimit(String query) {
+        if (query == null) {
+            return DEFAULT_TOP_LIMIT;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("limit=")) {
+                return parseId(parameter.substring("limit=".length()));
+            }
+        }
+        return DEFAULT_TOP_LIMIT;
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package ru.practicum.tracker.server.handlers;
 
 import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.tracker.model.TaskType;
 import ru.practicum.tracker.service.TaskManager;
 
 import java.io.IOException;
@@ -21,11 +22,16 @@ public class PrioritizedHandler extends BaseHttpHandler {
                 sendNotFound(exchange);
             }
         } catch (Exception e) {
-            sendInternalError(exchange);
+            sendInternalError(exchange, e);
         }
     }
 
     private void handleGetPrioritized(HttpExchange exchange) throws IOException {
-        sendText(exchange, GSON.toJson(manager.getPrioritizedTasks()));
+        // Расписание меняется вместе с задачами и подзадачами, поэтому используется общая версия
+        long version = manager.getVersion();
+        if (sendNotModifiedIfMatches(exchange, version)) {
+            return;
+        }
+        sendCachedJsonList(exchange, "prioritized", version, manager::getPrioritizedTasks);
     }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package ru.practicum.tracker.server.handlers;
+
+import java.io.IOException;
+
+// Тело запроса превышает допустимый размер; обработчики отвечают 413
+public class RequestTooLargeException extends IOException {
+    public RequestTooLargeException(long limit) {
+        super("Тело запроса больше " + limit + " байт");
+    }
+}
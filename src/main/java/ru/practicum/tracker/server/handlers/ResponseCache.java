@@ -0,0 +1,113 @@
+package ru.practicum.tracker.server.handlers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш готовых тел ответов списочных эндпоинтов.
+ * <p>
+ * Запись хранит версию данных, по которой она построена (см. {@code TaskManager.getVersion}),
+ * и выдаётся только при совпадении версии, поэтому отдельная инвалидация не нужна: любое
+ * изменение коллекции меняет версию, а изменения других коллекций её не трогают.
+ * На каждый ключ хранится одна запись — последняя; тела больше лимита не кэшируются.
+ */
+final class ResponseCache {
+    private final long maxEntryBytes;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    ResponseCache(long maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    boolean isEnabled() {
+        return maxEntryBytes > 0;
+    }
+
+    Entry get(String key, long version) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.version == version ? entry : null;
+    }
+
+    void put(String key, long version, byte[] body) {
+        if (body.length > maxEntryBytes) {
+            return;
+        }
+        // Запись с более старой версией не вытесняет более новую
+        entries.merge(key, new Entry(version, body),
+                (current, candidate) -> candidate.version >= current.version ? candidate : current);
+    }
+
+    CapturingStream capture(OutputStream target) {
+        return new CapturingStream(target, maxEntryBytes);
+    }
+
+    /**
+     * Поток, который пишет в ответ и одновременно копит копию тела для кэша.
+     * Копия отбрасывается, как только превышает лимит записи, сам ответ при этом не прерывается.
+     */
+    static final class CapturingStream extends FilterOutputStream {
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private CapturingStream(OutputStream target, long limit) {
+            super(target);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (reserve(1)) {
+                copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            if (reserve(length)) {
+                copy.write(buffer, offset, length);
+            }
+        }
+
+        // null, если тело оказалось больше лимита
+        byte[] captured() {
+            return copy == null ? null : copy.toByteArray();
+        }
+
+        private boolean reserve(int length) {
+            if (copy != null && copy.size() + (long) length > limit) {
+                copy = null;
+            }
+            return copy != null;
+        }
+    }
+
+    static final class Entry {
+        private final long version;
+        private final byte[] body;
+        // Сжатое тело строится при первом запросе с gzip; гонка безопасна — результат одинаков
+        private volatile byte[] gzipped;
+
+        private Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+
+        byte[] body() {
+            return body;
+        }
+
+        byte[] gzipped() {
+            return gzipped;
+        }
+
+        void setGzipped(byte[] gzipped) {
+            this.gzipped = gzipped;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.tracker.server.handlers;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import ru.practicum.tracker.model.Subtask;
+import ru.practicum.tracker.model.TaskType;
 import ru.practicum.tracker.service.ManagerConflictException;
 import ru.practicum.tracker.service.TaskManager;
 
@@ -48,12 +49,16 @@ public class SubtaskHandler extends BaseHttpHandler {
                     sendNotFound(exchange);
             }
         } catch (Exception e) {
-            sendInternalError(exchange);
+            sendInternalError(exchange, e);
         }
     }
 
     private void handleGetAllSubtasks(HttpExchange exchange) throws IOException {
-        sendText(exchange, GSON.toJson(manager.getAllSubtasks()));
+        long version = manager.getVersion(TaskType.SUBTASK);
+        if (sendNotModifiedIfMatches(exchange, version)) {
+            return;
+        }
+        sendCachedJsonList(exchange, "subtasks", version, manager::getAllSubtasks);
     }
 
     private void handleGetSubtaskById(HttpExchange exchange, String idString) throws IOException {
@@ -73,8 +78,7 @@ public class SubtaskHandler extends BaseHttpHandler {
 
     private void handleCreateOrUpdateSubtask(HttpExchange exchange) throws IOException {
         try {
-            String body = readRequest(exchange);
-            Subtask subtask = GSON.fromJson(body, Subtask.class);
+            Subtask subtask = readJson(exchange, Subtask.class);
 
             if (subtask == null) {
                 sendBadRequest(exchange, "Неверный формат подзадачи");
@@ -92,12 +96,14 @@ public class SubtaskHandler extends BaseHttpHandler {
                 manager.updateSubtask(subtask);
                 sendText(exchange, GSON.toJson(subtask));
             }
+        } catch (RequestTooLargeException e) {
+            sendPayloadTooLarge(exchange);
         } catch (JsonSyntaxException e) {
             sendBadRequest(exchange, "Неверный формат JSON");
         } catch (ManagerConflictException e) {
             sendHasInteractions(exchange);
         } catch (Exception e) {
-            sendInternalError(exchange);
+            sendInternalError(exchange, e);
         }
     }
 
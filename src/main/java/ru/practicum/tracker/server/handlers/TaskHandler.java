@@ -3,6 +3,7 @@ package ru.practicum.tracker.server.handlers;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import ru.practicum.tracker.model.Task;
+import ru.practicum.tracker.model.TaskType;
 import ru.practicum.tracker.service.ManagerConflictException;
 import ru.practicum.tracker.service.TaskManager;
 
@@ -48,12 +49,16 @@ public class TaskHandler extends BaseHttpHandler {
                     sendNotFound(exchange);
             }
         } catch (Exception e) {
-            sendInternalError(exchange);
+            sendInternalError(exchange, e);
         }
     }
 
     private void handleGetAllTasks(HttpExchange exchange) throws IOException {
-        sendText(exchange, GSON.toJson(manager.getAllTasks()));
+        long version = manager.getVersion(TaskType.TASK);
+        if (sendNotModifiedIfMatches(exchange, version)) {
+            return;
+        }
+        sendCachedJsonList(exchange, "tasks", version, manager::getAllTasks);
     }
 
     private void handleGetTaskById(HttpExchange exchange, String idString) throws IOException {
@@ -73,10 +78,10 @@ public class TaskHandler extends BaseHttpHandler {
 
     private void handleCreateOrUpdateTask(HttpExchange exchange) throws IOException {
         try {
-            String body = readRequest(exchange);
-            Task task = GSON.fromJson(body, Task.class);
+            Task task = readJson(exchange, Task.class);
 
-            if (task == null) {
+            // По полю type адаптер может вернуть эпик или подзадачу — здесь они не принимаются
+            if (task == null || task.getType() != TaskType.TASK) {
                 sendBadRequest(exchange, "Неверный формат задачи");
                 return;
             }
@@ -88,12 +93,14 @@ public class TaskHandler extends BaseHttpHandler {
                 manager.updateTask(task);
                 sendText(exchange, GSON.toJson(task));
             }
+        } catch (RequestTooLargeException e) {
+            sendPayloadTooLarge(exchange);
         } catch (JsonSyntaxException e) {
             sendBadRequest(exchange, "Неверный формат JSON");
         } catch (ManagerConflictException e) {
             sendHasInteractions(exchange);
         } catch (Exception e) {
-            sendInternalError(exchange);
+            sendInternalError(exchange, e);
         }
     }
 
@@ -0,0 +1,176 @@
+package ru.practicum.tracker.service;
+
+import ru.practicum.tracker.model.*;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Компактный двоичный формат снимка хранилища.
+ * <pre>
+ * int    MAGIC
+ * short  VERSION
+ * int    количество записей N
+ * N x    запись: int id, byte тип, byte статус (-1 — нет), int epicId (0 — нет),
+ *        long начало в минутах от эпохи UTC и long продолжительность в минутах (NO_VALUE — нет),
+ *        название и описание: int длина в байтах UTF-8 (-1 — null) и сами байты
+ * int    размер истории H, затем H x int id
+ * N x    int смещение записи (индекс записей)
+ * long   смещение индекса
+ * </pre>
+ * Загрузка идёт через {@link FileChannel#map}: поля читаются прямо из отображённого файла,
+ * без построчного чтения, разбиения строк и разбора дат. Размер файла ограничен 2 ГБ.
+ */
+public final class BinarySnapshotCodec {
+    private static final int MAGIC = 0x4B42534E; // "KBSN"
+    private static final short VERSION = 1;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final byte NO_STATUS = -1;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private BinarySnapshotCodec() {
+    }
+
+    public static void write(OutputStream target, Collection<Task> tasks, Collection<Epic> epics,
+                             Collection<Subtask> subtasks, List<Task> history) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, 64 * 1024));
+        int count = tasks.size() + epics.size() + subtasks.size();
+        int[] offsets = new int[count];
+        int index = 0;
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(count);
+        for (Task task : tasks) {
+            offsets[index++] = out.size();
+            writeRecord(out, task);
+        }
+        for (Epic epic : epics) {
+            offsets[index++] = out.size();
+            writeRecord(out, epic);
+        }
+        for (Subtask subtask : subtasks) {
+            offsets[index++] = out.size();
+            writeRecord(out, subtask);
+        }
+
+        out.writeInt(history.size());
+        for (Task task : history) {
+            out.writeInt(task.getId());
+        }
+
+        long indexOffset = out.size();
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        out.writeLong(indexOffset);
+        out.flush();
+    }
+
+    /**
+     * Читает снимок, передавая задачи и id истории обработчикам в порядке записи.
+     */
+    public static void read(File file, Consumer<Task> taskSink, IntConsumer historySink) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new ManagerSaveException("Файл не является двоичным снимком: " + file);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new ManagerSaveException("Неподдерживаемая версия снимка: " + version);
+            }
+            int count = buffer.getInt();
+            int indexOffset = (int) buffer.getLong(buffer.limit() - Long.BYTES);
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                buffer.position(buffer.getInt(indexOffset + i * Integer.BYTES));
+                taskSink.accept(readRecord(buffer, scratch));
+            }
+            int historySize = buffer.getInt();
+            for (int i = 0; i < historySize; i++) {
+                historySink.accept(buffer.getInt());
+            }
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new ManagerSaveException("Ошибка при загрузке двоичного снимка: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, Task task) throws IOException {
+        out.writeInt(task.getId());
+        out.writeByte(task.getType().ordinal());
+        out.writeByte(task.getStatus() == null ? NO_STATUS : task.getStatus().ordinal());
+        out.writeInt(task instanceof Subtask subtask ? subtask.getEpicId() : 0);
+        out.writeLong(task.getStartTime() == null
+                ? NO_VALUE
+                : task.getStartTime().toEpochSecond(ZoneOffset.UTC) / 60);
+        out.writeLong(task.getDuration() == null ? NO_VALUE : task.getDuration().toMinutes());
+        writeString(out, task.getName());
+        writeString(out, task.getDescription());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Task readRecord(ByteBuffer buffer, byte[] scratch) {
+        int id = buffer.getInt();
+        TaskType type = TYPES[buffer.get()];
+        byte statusOrdinal = buffer.get();
+        TaskStatus status = statusOrdinal == NO_STATUS ? null : STATUSES[statusOrdinal];
+        int epicId = buffer.getInt();
+        long startMinutes = buffer.getLong();
+        long durationMinutes = buffer.getLong();
+        String name = readString(buffer, scratch);
+        String description = readString(buffer, scratch);
+
+        LocalDateTime startTime = startMinutes == NO_VALUE
+                ? null
+                : LocalDateTime.ofEpochSecond(startMinutes * 60, 0, ZoneOffset.UTC);
+        Duration duration = durationMinutes == NO_VALUE ? null : Duration.ofMinutes(durationMinutes);
+
+        Task task = switch (type) {
+            case TASK -> new Task(name, description, status, duration, startTime);
+            case SUBTASK -> new Subtask(name, description, status, epicId, duration, startTime);
+            case EPIC -> {
+                Epic epic = new Epic(name, description);
+                epic.setStatus(status);
+                epic.setDuration(duration);
+                epic.setStartTime(startTime);
+                yield epic;
+            }
+        };
+        task.setId(id);
+        return task;
+    }
+
+    // Строки декодируются из переиспользуемого буфера: одна аллокация на строку
+    private static String readString(ByteBuffer buffer, byte[] scratch) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] target = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(target, 0, length);
+        return new String(target, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,356 @@
+package ru.practicum.tracker.service;
+
+import ru.practicum.tracker.history.HistoryManager;
+import ru.practicum.tracker.history.SynchronizedHistoryManager;
+import ru.practicum.tracker.model.Epic;
+import ru.practicum.tracker.model.Subtask;
+import ru.practicum.tracker.model.Task;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Потокобезопасный менеджер задач для многопоточного HTTP-сервера.
+ * <p>
+ * Хранилища — {@link ConcurrentHashMap} и индекс расписания под read-write блокировкой,
+ * идентификаторы выдаёт {@link AtomicInteger}. Изменения подзадач и эпика сериализуются
+ * по «полосе» блокировок, выбранной по id эпика, изменения задачи — по её id, поэтому
+ * операции над разными эпиками и задачами выполняются параллельно.
+ * Проверка пересечения по времени и вставка в список приоритетов выполняются атомарно
+ * под отдельной блокировкой расписания. Массовые удаления берут эксклюзивную блокировку,
+ * остальные изменения — разделяемую. Чтения карт выполняются без блокировок.
+ * <p>
+ * Порядок захвата блокировок: массовая → полоса эпика → расписание.
+ * <p>
+ * Историю, не безопасную для нескольких потоков ({@link HistoryManager#isThreadSafe()}),
+ * менеджер оборачивает в {@link SynchronizedHistoryManager}.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final AtomicInteger idGenerator = new AtomicInteger(1);
+    private final ReadWriteLock bulkLock = new ReentrantReadWriteLock();
+    private final Lock scheduleLock = new ReentrantLock();
+    private final Lock[] stripeLocks;
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        this(historyManager, DEFAULT_STRIPES);
+    }
+
+    public ConcurrentTaskManager(HistoryManager historyManager, int stripes) {
+        super(historyManager.isThreadSafe() ? historyManager : new SynchronizedHistoryManager(historyManager),
+                new ConcurrentHashMap<>(),
+                new ConcurrentHashMap<>(),
+                new ConcurrentHashMap<>(),
+                new LockingTimeSlotIndex(),
+                new ConcurrentHashMap<>());
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Количество блокировок должно быть положительным");
+        }
+        this.stripeLocks = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            stripeLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        return withSharedLock(() -> withSchedule(task, () -> super.createTask(task)));
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        return withSharedLock(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        return withSharedLock(() -> withEpicLock(subtask.getEpicId(),
+                () -> withSchedule(subtask, () -> super.createSubtask(subtask))));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        return withEpicLock(epicId, () -> super.getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        if (task == null) {
+            return;
+        }
+        withSharedLock(() -> withStripeLock(task.getId(), () -> withSchedule(task, () -> {
+            super.updateTask(task);
+            return null;
+        })));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        if (epic == null) {
+            return;
+        }
+        withSharedLock(() -> withEpicLock(epic.getId(), () -> {
+            super.updateEpic(epic);
+            return null;
+        }));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        if (subtask == null) {
+            return;
+        }
+        // Блокируются эпик, к которому подзадача привязана сейчас, и эпик из запроса: подзадачу могут перенести
+        withSharedLock(() -> withMoveLocks(subtask.getId(), subtask.getEpicId(), () -> withSchedule(subtask, () -> {
+            super.updateSubtask(subtask);
+            return null;
+        })));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        withSharedLock(() -> withStripeLock(id, () -> {
+            super.deleteTask(id);
+            return null;
+        }));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        withSharedLock(() -> withEpicLock(id, () -> {
+            super.deleteEpic(id);
+            return null;
+        }));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        withSharedLock(() -> withStoredEpicLock(id, () -> {
+            super.deleteSubtask(id);
+            return null;
+        }));
+    }
+
+    @Override
+    public void deleteTasks() {
+        withExclusiveLock(super::deleteTasks);
+    }
+
+    @Override
+    public void deleteSubtasks() {
+        withExclusiveLock(super::deleteSubtasks);
+    }
+
+    @Override
+    public void deleteEpics() {
+        withExclusiveLock(super::deleteEpics);
+    }
+
+    @Override
+    protected int generateId() {
+        return idGenerator.getAndIncrement();
+    }
+
+    private int stripeIndex(int id) {
+        return Math.floorMod(Integer.hashCode(id), stripeLocks.length);
+    }
+
+    private Lock stripeLock(int id) {
+        return stripeLocks[stripeIndex(id)];
+    }
+
+    // Задачи и эпики получают id из одного счётчика, поэтому делят одни полосы
+    private <T> T withStripeLock(int id, Supplier<T> action) {
+        Lock lock = stripeLock(id);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T withEpicLock(int epicId, Supplier<T> action) {
+        return withStripeLock(epicId, action);
+    }
+
+    // Блокирует полосы текущего эпика подзадачи и эпика targetEpicId в порядке номеров полос,
+    // чтобы встречные переносы не взаимоблокировались; текущий эпик после захвата сверяется ещё раз
+    private <T> T withMoveLocks(int subtaskId, int targetEpicId, Supplier<T> action) {
+        int target = stripeIndex(targetEpicId);
+        while (true) {
+            Subtask stored = subtasks.get(subtaskId);
+            if (stored == null) {
+                return null;
+            }
+            int current = stripeIndex(stored.getEpicId());
+            Lock first = stripeLocks[Math.min(current, target)];
+            Lock second = stripeLocks[Math.max(current, target)];
+            first.lock();
+            second.lock();
+            try {
+                Subtask latest = subtasks.get(subtaskId);
+                if (latest == null) {
+                    return null;
+                }
+                int latestStripe = stripeIndex(latest.getEpicId());
+                if (latestStripe == current || latestStripe == target) {
+                    return action.get();
+                }
+            } finally {
+                second.unlock();
+                first.unlock();
+            }
+        }
+    }
+
+    // Блокирует полосу эпика сохранённой подзадачи; до захвата подзадачу могли перенести
+    // в другой эпик, поэтому после захвата эпик сверяется ещё раз. Без подзадачи действие не выполняется
+    private <T> T withStoredEpicLock(int subtaskId, Supplier<T> action) {
+        while (true) {
+            Subtask stored = subtasks.get(subtaskId);
+            if (stored == null) {
+                return null;
+            }
+            Lock lock = stripeLock(stored.getEpicId());
+            lock.lock();
+            try {
+                Subtask current = subtasks.get(subtaskId);
+                if (current == null) {
+                    return null;
+                }
+                if (stripeLock(current.getEpicId()) == lock) {
+                    return action.get();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Задачи без времени начала не участвуют в расписании и не требуют блокировки
+    private <T> T withSchedule(Task task, Supplier<T> action) {
+        if (task.getStartTime() == null) {
+            return action.get();
+        }
+        scheduleLock.lock();
+        try {
+            return action.get();
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    private <T> T withSharedLock(Supplier<T> action) {
+        Lock lock = bulkLock.readLock();
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void withExclusiveLock(Runnable action) {
+        Lock lock = bulkLock.writeLock();
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Индекс расписания, безопасный для одновременного чтения и изменения
+    private static class LockingTimeSlotIndex extends TimeSlotIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        @Override
+        public void add(Task task) {
+            lock.writeLock().lock();
+            try {
+                super.add(task);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void addAll(Collection<? extends Task> source) {
+            lock.writeLock().lock();
+            try {
+                super.addAll(source);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void remove(int id) {
+            lock.writeLock().lock();
+            try {
+                super.remove(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void clear() {
+            lock.writeLock().lock();
+            try {
+                super.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean contains(int id) {
+            lock.readLock().lock();
+            try {
+                return super.contains(id);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean hasConflict(Task task) {
+            lock.readLock().lock();
+            try {
+                return super.hasConflict(task);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public List<Task> toList() {
+            lock.readLock().lock();
+            try {
+                return super.toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.readLock().lock();
+            try {
+                return super.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package ru.practicum.tracker.service;
+
+import ru.practicum.tracker.model.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Кодек строк CSV-снимка: id,type,name,status,description,duration,startTime,epic.
+ * <p>
+ * Запись собирается в переиспользуемом буфере без {@code String.format}. Поля с запятой, кавычкой,
+ * переводом строки, обратной косой чертой или пробелами по краям заключаются в кавычки:
+ * кавычка внутри удваивается, а {@code \}, перевод строки и возврат каретки записываются как
+ * {@code \\}, {@code \n} и {@code \r}, поэтому каждая запись занимает ровно одну физическую строку.
+ * <p>
+ * Совместимость со снимками прежнего формата, где поля записывались как есть: поля без кавычек
+ * читаются как есть, а поле, начинающееся с кавычки, считается заключённым в кавычки, только если
+ * закрывающая кавычка завершает поле; иначе оно тоже читается как есть. Отличаются два случая:
+ * старое значение, целиком заключённое в кавычки, например {@code "x"}, читается без них;
+ * отсутствующие название и описание раньше записывались строкой {@code null} и так и читаются,
+ * а теперь записываются пустым полем и читаются как «Unnamed» и пустое описание.
+ * <p>
+ * Разбор идёт по границам полей внутри исходной строки: числа, перечисления и даты читаются
+ * без создания подстрок и без исключений, строки создаются только для названия и описания.
+ * Экземпляр не потокобезопасен.
+ */
+public final class CsvRecordCodec {
+    public static final String HEADER = "id,type,name,status,description,duration,startTime,epic";
+
+    private static final int FIELD_COUNT = 8;
+    private static final long INVALID = Long.MIN_VALUE;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final StringBuilder buffer = new StringBuilder(128);
+    private char[] chars = new char[128];
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+    private final boolean[] fieldQuoted = new boolean[FIELD_COUNT];
+
+    /**
+     * Формирует запись задачи. Возвращаемый буфер действителен до следующего вызова кодека.
+     */
+    public CharSequence format(Task task) {
+        buffer.setLength(0);
+        buffer.append(task.getId()).append(',')
+                .append(task.getType().name()).append(',');
+        appendText(task.getName());
+        buffer.append(',');
+        if (task.getStatus() != null) {
+            buffer.append(task.getStatus().name());
+        }
+        buffer.append(',');
+        appendText(task.getDescription());
+        buffer.append(',');
+        if (task.getDuration() != null) {
+            buffer.append(task.getDuration().toMinutes());
+        }
+        buffer.append(',');
+        if (task.getStartTime() != null) {
+            appendDateTime(task.getStartTime());
+        }
+        buffer.append(',');
+        if (task instanceof Subtask subtask) {
+            buffer.append(subtask.getEpicId());
+        }
+        return buffer;
+    }
+
+    // Символы буфера передаются в Writer через переиспользуемый массив, без промежуточной строки
+    public void write(Task task, Writer out) throws IOException {
+        format(task);
+        buffer.append('\n');
+        int length = buffer.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+    }
+
+    public Task parse(CharSequence line) {
+        return parse(line, 0);
+    }
+
+    public Task parse(CharSequence line, int offset) {
+        return parse(line, offset, line == null ? 0 : line.length());
+    }
+
+    /**
+     * Разбирает запись в диапазоне {@code [from, to)} строки, например одну строку внутри
+     * прочитанного целиком файла. При ошибке пишет причину в {@code System.err} и возвращает null.
+     */
+    public Task parse(CharSequence line, int from, int to) {
+        if (line == null || isBlank(line, from, to)) {
+            System.err.println("Пропущена пустая строка");
+            return null;
+        }
+        int fields = split(line, from, to);
+        if (fields < 2) {
+            System.err.println("Недостаточно полей в строке: " + line.subSequence(from, to));
+            return null;
+        }
+
+        long id = parseLong(line, 0);
+        if (id == INVALID || id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) {
+            return error(line, from, to, "некорректный id");
+        }
+        TaskType type = parseEnum(TYPES, line, 1);
+        if (type == null) {
+            return error(line, from, to, "неизвестный тип задачи");
+        }
+        String name = fields > 2 && !isEmpty(2) ? text(line, 2) : "Unnamed";
+        TaskStatus status = TaskStatus.NEW;
+        if (fields > 3 && !isEmpty(3)) {
+            status = parseEnum(STATUSES, line, 3);
+            if (status == null) {
+                return error(line, from, to, "неизвестный статус");
+            }
+        }
+        String description = fields > 4 && !isEmpty(4) ? text(line, 4) : "";
+        Duration duration = null;
+        if (fields > 5 && !isEmpty(5)) {
+            long minutes = parseLong(line, 5);
+            if (minutes == INVALID) {
+                return error(line, from, to, "некорректная продолжительность");
+            }
+            duration = Duration.ofMinutes(minutes);
+        }
+        LocalDateTime startTime = null;
+        if (fields > 6 && !isEmpty(6)) {
+            startTime = parseDateTime(line, 6);
+            if (startTime == null) {
+                return error(line, from, to, "некорректное время начала");
+            }
+        }
+
+        Task task = switch (type) {
+            case TASK -> new Task(name, description, status, duration, startTime);
+            case EPIC -> {
+                Epic epic = new Epic(name, description);
+                epic.setStatus(status);
+                epic.setDuration(duration);
+                epic.setStartTime(startTime);
+                epic.setEndTime(startTime != null && duration != null ? startTime.plus(duration) : null);
+                yield epic;
+            }
+            case SUBTASK -> {
+                if (fields < FIELD_COUNT || isEmpty(7)) {
+                    System.err.println("Недостаточно полей для подзадачи или отсутствует epicId: " + line.subSequence(from, to));
+                    yield null;
+                }
+                long epicId = parseLong(line, 7);
+                if (epicId == INVALID || epicId == 0 || epicId < Integer.MIN_VALUE || epicId > Integer.MAX_VALUE) {
+                    System.err.println("Некорректный epicId для подзадачи: " + line.subSequence(from, to));
+                    yield null;
+                }
+                yield new Subtask(name, description, status, (int) epicId, duration, startTime);
+            }
+        };
+        if (task != null) {
+            task.setId((int) id);
+        }
+        return task;
+    }
+
+    private void appendText(String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            buffer.append(value);
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> buffer.append("\"\"");
+                case '\\' -> buffer.append("\\\\");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                default -> buffer.append(c);
+            }
+        }
+        buffer.append('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        if (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1))) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\\' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // yyyy-MM-dd HH:mm — тот же формат, что и у прежнего DateTimeFormatter
+    private void appendDateTime(LocalDateTime time) {
+        appendPadded(time.getYear(), 4);
+        buffer.append('-');
+        appendPadded(time.getMonthValue(), 2);
+        buffer.append('-');
+        appendPadded(time.getDayOfMonth(), 2);
+        buffer.append(' ');
+        appendPadded(time.getHour(), 2);
+        buffer.append(':');
+        appendPadded(time.getMinute(), 2);
+    }
+
+    private void appendPadded(int value, int width) {
+        for (int i = 1, limit = 10; i < width; i++, limit *= 10) {
+            if (value < limit) {
+                buffer.append('0');
+            }
+        }
+        buffer.append(value);
+    }
+
+    /**
+     * Находит границы полей. Для поля без кавычек границы сужаются до значения без пробелов
+     * по краям, для поля в кавычках указывают на содержимое между кавычками.
+     * Кавычка в начале поля, которая не закрывается в конце поля, — поле прежнего формата,
+     * записанное как есть, и оно читается без разбора кавычек. Возвращает число полей.
+     */
+    private int split(CharSequence line, int from, int to) {
+        int length = to;
+        int field = 0;
+        int position = from;
+        while (true) {
+            int start = position;
+            while (start < length && Character.isWhitespace(line.charAt(start))) {
+                start++;
+            }
+            int end = -1;
+            int next = -1;
+            boolean quoted = false;
+            if (start < length && line.charAt(start) == '"') {
+                end = closingQuote(line, start + 1, length);
+                next = end + 1;
+                while (end >= 0 && next < length && Character.isWhitespace(line.charAt(next))) {
+                    next++;
+                }
+                quoted = end >= 0 && (next >= length || line.charAt(next) == ',');
+            }
+            if (quoted) {
+                start++;
+            } else {
+                next = start;
+                while (next < length && line.charAt(next) != ',') {
+                    next++;
+                }
+                end = next;
+                while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+                    end--;
+                }
+            }
+            if (field < FIELD_COUNT) {
+                fieldStart[field] = start;
+                fieldEnd[field] = end;
+                fieldQuoted[field] = quoted;
+            }
+            field++;
+            if (next >= length) {
+                return Math.min(field, FIELD_COUNT);
+            }
+            position = next + 1;
+        }
+    }
+
+    private static int closingQuote(CharSequence line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                if (i + 1 < to && line.charAt(i + 1) == '"') {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean isEmpty(int field) {
+        return fieldStart[field] == fieldEnd[field];
+    }
+
+    private String text(CharSequence line, int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (!fieldQuoted[field]) {
+            return line.subSequence(start, end).toString();
+        }
+        buffer.setLength(0);
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                i++; // Удвоенная кавычка
+            } else if (c == '\\' && i + 1 < end) {
+                char escaped = line.charAt(++i);
+                c = switch (escaped) {
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> escaped;
+                };
+            }
+            buffer.append(c);
+        }
+        return buffer.toString();
+    }
+
+    private long parseLong(CharSequence line, int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (start == end) {
+            return INVALID;
+        }
+        boolean negative = line.charAt(start) == '-';
+        if (negative || line.charAt(start) == '+') {
+            start++;
+        }
+        if (start == end || end - start > 18) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private <E extends Enum<E>> E parseEnum(E[] values, CharSequence line, int field) {
+        int start = fieldStart[field];
+        int length = fieldEnd[field] - start;
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && name.charAt(i) == line.charAt(start + i)) {
+                i++;
+            }
+            if (i == length) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private LocalDateTime parseDateTime(CharSequence line, int field) {
+        int start = fieldStart[field];
+        if (fieldEnd[field] - start != 16
+                || line.charAt(start + 4) != '-' || line.charAt(start + 7) != '-'
+                || line.charAt(start + 10) != ' ' || line.charAt(start + 13) != ':') {
+            return null;
+        }
+        int year = digits(line, start, 4);
+        int month = digits(line, start + 5, 2);
+        int day = digits(line, start + 8, 2);
+        int hour = digits(line, start + 11, 2);
+        int minute = digits(line, start + 14, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    private static int digits(CharSequence line, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isBlank(CharSequence line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Task error(CharSequence line, int from, int to, String reason) {
+        System.err.println("Ошибка парсинга строки: " + line.subSequence(from, to) + ", причина: " + reason);
+        return null;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.tracker.service;
+
+// Гарантии записи изменений на диск
+public enum Durability {
+    // Запись и fsync на каждую операцию в потоке вызывающего
+    SYNC,
+    // Операции копятся в пачку; вызывающий ждёт одного общего fsync
+    GROUP,
+    // Операции пишутся фоновым потоком без ожидания и без fsync
+    ASYNC
+}
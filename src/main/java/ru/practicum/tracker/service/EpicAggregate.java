@@ -0,0 +1,119 @@
+package ru.practicum.tracker.service;
+
+import ru.practicum.tracker.model.Epic;
+import ru.practicum.tracker.model.Subtask;
+import ru.practicum.tracker.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Накопленные показатели подзадач одного эпика: счётчики статусов, суммарная продолжительность
+ * и упорядоченные мультимножества времён начала и окончания.
+ * <p>
+ * Для каждой подзадачи запоминается вклад, внесённый при последнем обновлении, поэтому
+ * изменение или удаление подзадачи пересчитывает эпик за O(log k), а не перебором всех подзадач.
+ */
+public class EpicAggregate {
+
+    private record Contribution(TaskStatus status, Duration duration, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+    private final int[] statusCounts = new int[TaskStatus.values().length];
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+    private Duration totalDuration = Duration.ZERO;
+
+    public boolean contains(int subtaskId) {
+        return contributions.containsKey(subtaskId);
+    }
+
+    /**
+     * Учитывает подзадачу, заменяя её предыдущий вклад, если он был.
+     */
+    public void put(Subtask subtask) {
+        remove(subtask.getId());
+        Contribution contribution = new Contribution(subtask.getStatus(), subtask.getDuration(),
+                subtask.getStartTime(), subtask.getEndTime());
+        contributions.put(subtask.getId(), contribution);
+        if (contribution.status() != null) {
+            statusCounts[contribution.status().ordinal()]++;
+        }
+        if (contribution.duration() != null) {
+            totalDuration = totalDuration.plus(contribution.duration());
+        }
+        increment(starts, contribution.start());
+        increment(ends, contribution.end());
+    }
+
+    public void remove(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) {
+            return;
+        }
+        if (contribution.status() != null) {
+            statusCounts[contribution.status().ordinal()]--;
+        }
+        if (contribution.duration() != null) {
+            totalDuration = totalDuration.minus(contribution.duration());
+        }
+        decrement(starts, contribution.start());
+        decrement(ends, contribution.end());
+    }
+
+    public void clear() {
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        starts.clear();
+        ends.clear();
+        totalDuration = Duration.ZERO;
+    }
+
+    public TaskStatus getStatus() {
+        int total = contributions.size();
+        if (total == 0 || statusCounts[TaskStatus.NEW.ordinal()] == total) {
+            return TaskStatus.NEW;
+        }
+        if (statusCounts[TaskStatus.DONE.ordinal()] == total) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+
+    public LocalDateTime getStartTime() {
+        return starts.isEmpty() ? null : starts.firstKey();
+    }
+
+    public LocalDateTime getEndTime() {
+        return ends.isEmpty() ? null : ends.lastKey();
+    }
+
+    public Duration getDuration() {
+        return totalDuration.isZero() ? null : totalDuration;
+    }
+
+    // Переносит рассчитанные значения в эпик
+    public void applyTo(Epic epic) {
+        epic.setStatus(getStatus());
+        epic.setStartTime(getStartTime());
+        epic.setDuration(getDuration());
+        epic.setEndTime(getEndTime());
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        if (key != null) {
+            multiset.merge(key, 1, Integer::sum);
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        if (key != null) {
+            multiset.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
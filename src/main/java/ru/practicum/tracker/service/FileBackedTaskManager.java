@@ -5,62 +5,209 @@ import ru.practicum.tracker.model.*;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Менеджер задач с сохранением в файл.
+ * <p>
+ * Изменения выполняются под монитором менеджера; запись на диск — либо там же (Durability.SYNC),
+ * либо фоновым {@link GroupCommitWriter}, который объединяет операции из окна накопления
+ * в одну запись. В режиме GROUP вызывающий ждёт фиксации своей пачки уже после выхода из монитора,
+ * поэтому конкурирующие запросы не выстраиваются в очередь за диском.
+ * <p>
+ * Чтения тоже выполняются под монитором: хранилища — обычные HashMap и TreeMap, поэтому
+ * менеджер безопасен с любым {@code ExecutorType} сервера, но все операции сериализуются.
+ * В режиме SYNC fsync выполняется под монитором; на виртуальных потоках Java 21 это
+ * удерживает поток-носитель, поэтому при многих одновременных изменениях лучше GROUP.
+ */
 public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private final StorageConfig config;
+    private final TaskJournal journal;
+    // Просмотры пишутся отдельно, чтобы чтение не перезаписывало данные задач
+    private final TaskJournal historyLog;
+    private final ScheduledExecutorService historyFlusher;
+    private final GroupCommitWriter writer;
+    private boolean historyStarted;
+    // Количество записанных просмотров; по нему снимок узнаёт, были ли просмотры после него
+    private long recordedViews;
+    // Журнал продолжает уже сохранённое состояние; иначе перед первой записью нужен снимок
+    private boolean journalStarted;
+    // Записи журнала с последнего снимка, включая ещё не записанные фоновым потоком
+    private int journalRecords;
+    private final LoadReport loadReport = new LoadReport();
+    // Буфер кодека общий: записи формируются и разбираются только под монитором или при загрузке
+    private final CsvRecordCodec codec = new CsvRecordCodec();
+
+    // Записи журнала: P — добавление/замена, D — удаление по id, C — очистка типа
+    private static final char RECORD_PUT = 'P';
+    private static final char RECORD_DELETE = 'D';
+    private static final char RECORD_CLEAR = 'C';
 
     public FileBackedTaskManager(File file) {
+        this(file, new StorageConfig());
+    }
+
+    public FileBackedTaskManager(File file, StorageConfig config) {
         super();
         this.file = file;
+        this.config = config;
+        this.journal = config.getMode() == PersistenceMode.JOURNAL
+                ? new TaskJournal(new File(file.getPath() + ".journal"))
+                : null;
+        this.historyLog = new TaskJournal(new File(file.getPath() + ".history"));
+        this.historyFlusher = config.getHistoryFlushPolicy() == HistoryFlushPolicy.PERIODIC
+                ? startHistoryFlusher(config.getHistoryFlushIntervalMillis())
+                : null;
+        this.writer = config.getDurability() == Durability.SYNC
+                ? null
+                : new GroupCommitWriter("task-store-writer", this::commitBatch,
+                        config.getDurability() == Durability.GROUP, config.getGroupCommitWindowMillis());
     }
 
     public File getFile() {
         return file;
     }
 
+    public StorageConfig getConfig() {
+        return config;
+    }
+
+    // Записывает полный снимок вместе с историей и очищает журналы, вошедшие в него
     public void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
-            writer.write("id,type,name,status,description,duration,startTime,epic\n");
+        if (writer != null) {
+            writer.await(writer.requestSnapshot());
+            return;
+        }
+        synchronized (this) {
+            commitSnapshot(true);
+        }
+    }
+
+    // Дожидается записи всех уже принятых изменений
+    public void flush() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    // Сбрасывает накопленные просмотры на диск независимо от политики
+    public void flushHistory() {
+        historyLog.flush();
+    }
+
+    public void close() {
+        if (writer != null) {
+            writer.close();
+        }
+        if (historyFlusher != null) {
+            historyFlusher.shutdownNow();
+        }
+        historyLog.close();
+        if (journal != null) {
+            journal.close();
+        }
+    }
 
-            // Записываем задачи
-            for (Task task : tasks.values()) {
-                writer.write(toString(task) + "\n");
+    // Приёмник пачек фонового писателя
+    private void commitBatch(List<String> records, boolean snapshot, boolean sync) {
+        if (snapshot) {
+            commitSnapshot(sync);
+            return;
+        }
+        for (String record : records) {
+            journal.append(record);
+        }
+        if (sync) {
+            journal.sync();
+        } else {
+            journal.flush();
+        }
+    }
+
+    /**
+     * Снимок пишется во временный файл и атомарно подменяет прежний, поэтому сбой посередине
+     * оставляет на диске старый снимок. Журналы очищаются только после успешной подмены.
+     */
+    private void commitSnapshot(boolean sync) {
+        long capturedViews = writeSnapshot(sync);
+        if (journal != null) {
+            journal.reset();
+        }
+        synchronized (this) {
+            if (recordedViews == capturedViews) {
+                historyLog.reset();
+            } else {
+                // Просмотры после формирования снимка должны пережить очистку журнала истории
+                compactHistoryLog();
             }
-            for (Epic epic : epics.values()) {
-                writer.write(toString(epic) + "\n");
+            historyStarted = true;
+            journalStarted = true;
+        }
+    }
+
+    // Содержимое формируется под монитором менеджера, fsync выполняется уже без него.
+    // Возвращает номер последнего просмотра, вошедшего в снимок
+    private long writeSnapshot(boolean sync) {
+        File temp = new File(file.getPath() + ".tmp");
+        long capturedViews;
+        try (FileOutputStream output = new FileOutputStream(temp);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            synchronized (this) {
+                if (config.getSnapshotFormat() == SnapshotFormat.BINARY) {
+                    BinarySnapshotCodec.write(output, tasks.values(), epics.values(), subtasks.values(),
+                            historyManager.getHistory());
+                } else {
+                    writeSnapshotContent(writer);
+                    writer.flush();
+                }
+                capturedViews = recordedViews;
             }
-            for (Subtask subtask : subtasks.values()) {
-                writer.write(toString(subtask) + "\n");
+            if (sync) {
+                output.getFD().sync();
             }
-
-            // Записываем историю
-            writer.write("\n");
-            writer.write(historyToString(historyManager));
+        } catch (IOException e) {
+            temp.delete();
+            throw new ManagerSaveException("Ошибка при сохранении в файл: " + e.getMessage());
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка при сохранении в файл: " + e.getMessage());
         }
+        return capturedViews;
     }
 
-    private String toString(Task task) {
-        String duration = task.getDuration() != null ? String.valueOf(task.getDuration().toMinutes()) : "";
-        String startTime = task.getStartTime() != null ? task.getStartTime().format(FORMATTER) : "";
-        String epicId = task instanceof Subtask ? String.valueOf(((Subtask) task).getEpicId()) : "";
+    private void writeSnapshotContent(Writer writer) throws IOException {
+        writer.write(CsvRecordCodec.HEADER + "\n");
+
+        // Записываем задачи
+        for (Task task : tasks.values()) {
+            codec.write(task, writer);
+        }
+        for (Epic epic : epics.values()) {
+            codec.write(epic, writer);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            codec.write(subtask, writer);
+        }
 
-        return String.format("%d,%s,%s,%s,%s,%s,%s,%s",
-                task.getId(),
-                task.getType(),
-                task.getName(),
-                task.getStatus(),
-                task.getDescription(),
-                duration,
-                startTime,
-                epicId);
+        // Записываем историю
+        writer.write("\n");
+        writer.write(historyToString(historyManager));
     }
 
     private static String historyToString(HistoryManager manager) {
@@ -76,152 +223,491 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        return loadFromFile(file, new StorageConfig());
+    }
+
+    /**
+     * Загружает менеджер из файла. При {@link StorageConfig#getLoadParallelism()} больше 1
+     * CSV-снимок разбирается частями на пуле fork-join, а показатели эпиков пересчитываются параллельно.
+     * Время этапов доступно через {@link #getLoadReport()}.
+     */
+    public static FileBackedTaskManager loadFromFile(File file, StorageConfig config) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, config);
+        LoadReport report = manager.loadReport;
+        ForkJoinPool pool = config.getLoadParallelism() > 1 ? new ForkJoinPool(config.getLoadParallelism()) : null;
+        try {
+            TaskJournal journal = manager.journal;
+            if (journal == null || file.exists() || !journal.exists()) {
+                if (pool != null && config.getSnapshotFormat() == SnapshotFormat.CSV) {
+                    manager.readSnapshotParallel(pool, report);
+                } else {
+                    report.measure(LoadReport.Phase.PARSE, manager::readSnapshot);
+                }
+            }
+            if (journal != null) {
+                report.measure(LoadReport.Phase.JOURNAL, () -> {
+                    journal.replay(manager::applyRecord);
+                    manager.journalStarted = true;
+                    manager.journalRecords = journal.size();
+                });
+            }
+            report.measure(LoadReport.Phase.HISTORY, () -> {
+                manager.historyLog.replay(manager::applyViewRecord);
+                manager.historyStarted = true;
+            });
+            manager.rebuildState(pool, report);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return manager;
+    }
+
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    // Журнал изменений рядом со снимком воспроизводится, если он есть
+    public static FileBackedTaskManager convertToBinary(File csvFile, File binaryFile) {
+        StorageConfig sourceConfig = new StorageConfig();
+        if (new File(csvFile.getPath() + ".journal").exists()) {
+            sourceConfig.setMode(PersistenceMode.JOURNAL);
+        }
+        return convertToBinary(csvFile, sourceConfig, binaryFile);
+    }
+
+    /**
+     * Переводит CSV-снимок вместе с журналами рядом с ним в двоичный формат.
+     * Хранилище загружается с настройками {@code sourceConfig}, поэтому в режиме JOURNAL
+     * изменения после последнего сжатия не теряются. Исходные файлы не изменяются.
+     */
+    public static FileBackedTaskManager convertToBinary(File csvFile, StorageConfig sourceConfig, File binaryFile) {
+        if (sourceConfig.getSnapshotFormat() != SnapshotFormat.CSV) {
+            throw new IllegalArgumentException("Исходный снимок должен быть в формате CSV");
+        }
+        FileBackedTaskManager source = loadFromFile(csvFile, sourceConfig);
+        source.close();
+        StorageConfig config = new StorageConfig();
+        config.setSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager target = new FileBackedTaskManager(binaryFile, config);
+        source.tasks.values().forEach(target::putLoaded);
+        source.epics.values().forEach(target::putLoaded);
+        source.subtasks.values().forEach(target::putLoaded);
+        source.historyManager.getHistory().forEach(task -> target.addLoadedView(task.getId()));
+        target.rebuildState();
+        target.save();
+        return target;
+    }
+
+    private void readSnapshot() {
+        if (config.getSnapshotFormat() == SnapshotFormat.BINARY) {
+            BinarySnapshotCodec.read(file, this::putLoaded, this::addLoadedView);
+            return;
+        }
         try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
             String line = reader.readLine(); // Пропускаем заголовок
             while ((line = reader.readLine()) != null) {
                 if (line.isEmpty()) {
                     break; // Пустая строка отделяет задачи от истории
                 }
-                Task task = fromString(line);
+                Task task = codec.parse(line);
                 if (task != null) {
-                    if (task instanceof Epic) {
-                        manager.epics.put(task.getId(), (Epic) task);
-                    } else if (task instanceof Subtask subtask) {
-                        manager.subtasks.put(subtask.getId(), subtask);
-                        Epic epic = manager.epics.get(subtask.getEpicId());
-                        if (epic != null) {
-                            epic.addSubtaskId(subtask.getId());
-                        }
-                    } else {
-                        manager.tasks.put(task.getId(), task);
-                    }
-                    if (task.getStartTime() != null) {
-                        manager.prioritizedTasks.add(task);
-                    }
+                    putLoaded(task);
                 }
             }
 
             // Читаем историю
             String historyLine = reader.readLine();
             if (historyLine != null && !historyLine.isEmpty()) {
-                List<Integer> historyIds = historyFromString(historyLine);
-                for (Integer id : historyIds) {
-                    Task task = manager.tasks.get(id);
-                    if (task == null) {
-                        task = manager.epics.get(id);
-                    }
-                    if (task == null) {
-                        task = manager.subtasks.get(id);
-                    }
-                    if (task != null) {
-                        manager.historyManager.add(task);
-                    }
+                for (Integer id : historyFromString(historyLine)) {
+                    addLoadedView(id);
                 }
             }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке из файла: " + e.getMessage());
+        }
+    }
 
-            // Обновляем счетчик ID
-            int maxId = Math.max(
-                    manager.tasks.keySet().stream().mapToInt(Integer::intValue).max().orElse(0),
-                    Math.max(
-                            manager.epics.keySet().stream().mapToInt(Integer::intValue).max().orElse(0),
-                            manager.subtasks.keySet().stream().mapToInt(Integer::intValue).max().orElse(0)
-                    )
-            );
-            manager.counterId = maxId + 1;
+    // Разбивает раздел задач на части по границам строк и разбирает их параллельно
+    private void readSnapshotParallel(ForkJoinPool pool, LoadReport report) {
+        String[] content = new String[1];
+        report.measure(LoadReport.Phase.READ, () -> {
+            try {
+                content[0] = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при загрузке из файла: " + e.getMessage());
+            }
+        });
+        String text = content[0];
+
+        // Строки делятся так же, как в BufferedReader.readLine: по \n, \r или \r\n
+        int sectionStart = nextLine(text, lineEnd(text, 0, text.length())); // Пропускаем заголовок
+        int sectionEnd = blankLine(text, sectionStart);
+        String historyLine = sectionEnd < text.length() ? lineAt(text, nextLine(text, sectionEnd)) : null;
+
+        List<List<Task>> chunks = new ArrayList<>();
+        report.measure(LoadReport.Phase.PARSE, () -> {
+            List<Callable<List<Task>>> parsers = new ArrayList<>();
+            int chunkCount = pool.getParallelism() * 4;
+            int chunkSize = Math.max(1, (sectionEnd - sectionStart) / chunkCount);
+            int from = sectionStart;
+            while (from < sectionEnd) {
+                int to = Math.min(sectionEnd, from + chunkSize);
+                int end = lineEnd(text, to - 1, sectionEnd);
+                to = end >= sectionEnd ? sectionEnd : Math.min(sectionEnd, nextLine(text, end));
+                int chunkFrom = from;
+                int chunkTo = to;
+                parsers.add(() -> parseChunk(text, chunkFrom, chunkTo));
+                from = to;
+            }
+            try {
+                for (Future<List<Task>> future : pool.invokeAll(parsers)) {
+                    chunks.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ManagerSaveException("Загрузка из файла прервана");
+            } catch (ExecutionException e) {
+                throw new ManagerSaveException("Ошибка при загрузке из файла: " + e.getCause().getMessage());
+            }
+        });
 
-            // Обновляем статусы и время эпиков
-            for (Epic epic : manager.epics.values()) {
-                manager.updateEpicStatus(epic);
-                manager.updateEpicTime(epic);
+        String history = historyLine;
+        report.measure(LoadReport.Phase.MERGE, () -> {
+            for (List<Task> chunk : chunks) {
+                chunk.forEach(this::putLoaded);
             }
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при загрузке из файла: " + e.getMessage());
+            if (history != null && !history.isEmpty()) {
+                for (Integer id : historyFromString(history)) {
+                    addLoadedView(id);
+                }
+            }
+        });
+    }
+
+    private static List<Task> parseChunk(String text, int from, int to) {
+        List<Task> result = new ArrayList<>();
+        CsvRecordCodec chunkCodec = new CsvRecordCodec();
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineEnd(text, lineStart, to);
+            if (lineEnd > lineStart) {
+                Task task = chunkCodec.parse(text, lineStart, lineEnd);
+                if (task != null) {
+                    result.add(task);
+                }
+            }
+            lineStart = nextLine(text, lineEnd);
         }
-        return manager;
+        return result;
     }
 
-    private static Task fromString(String line) {
-        if (line == null || line.trim().isEmpty()) {
-            System.err.println("Пропущена пустая строка");
+    private static String lineAt(String text, int start) {
+        if (start >= text.length()) {
             return null;
         }
+        return text.substring(start, lineEnd(text, start, text.length()));
+    }
 
-        String[] parts = line.split(",");
-        // Проверяем минимальное количество полей: 2 для задач/эпиков (id, type), 3 для подзадач (id, type, epicId)
-        if (parts.length < 2) {
-            System.err.println("Недостаточно полей в строке: " + line);
-            return null;
+    // Начало первой пустой строки, отделяющей задачи от истории, иначе конец текста
+    private static int blankLine(String text, int from) {
+        int lineStart = from;
+        while (lineStart < text.length()) {
+            int end = lineEnd(text, lineStart, text.length());
+            if (end == lineStart) {
+                return lineStart;
+            }
+            lineStart = nextLine(text, end);
+        }
+        return text.length();
+    }
+
+    // Позиция первого \n или \r в [from, limit), иначе limit
+    private static int lineEnd(String text, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    // Начало строки, следующей за концом строки lineEnd; \r\n считается одним разделителем
+    private static int nextLine(String text, int lineEnd) {
+        if (lineEnd + 1 < text.length() && text.charAt(lineEnd) == '\r' && text.charAt(lineEnd + 1) == '\n') {
+            return lineEnd + 2;
         }
+        return lineEnd + 1;
+    }
 
-        int id;
-        TaskType type;
-        String name = "Unnamed";
-        TaskStatus status = TaskStatus.NEW;
-        String description = "";
-        Duration duration = null;
-        LocalDateTime startTime = null;
-        int epicId = 0;
+    // Применяет одну запись журнала к загружаемому состоянию
+    private void applyRecord(String record) {
+        if (record.length() < 2 || record.charAt(1) != ',') {
+            System.err.println("Некорректная запись журнала: " + record);
+            return;
+        }
+        String payload = record.substring(2);
+        try {
+            switch (record.charAt(0)) {
+                case RECORD_PUT -> {
+                    Task task = codec.parse(record, 2);
+                    if (task != null) {
+                        putLoaded(task);
+                    }
+                }
+                case RECORD_DELETE -> removeLoaded(Integer.parseInt(payload));
+                case RECORD_CLEAR -> clearLoaded(TaskType.valueOf(payload));
+                default -> System.err.println("Неизвестная запись журнала: " + record);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ошибка разбора записи журнала: " + record + ", причина: " + e.getMessage());
+        }
+    }
 
+    private void applyViewRecord(String record) {
         try {
-            id = Integer.parseInt(parts[0].trim());
-            type = TaskType.valueOf(parts[1].trim());
+            addLoadedView(Integer.parseInt(record.trim()));
+        } catch (NumberFormatException e) {
+            System.err.println("Некорректный ID в журнале истории: " + record);
+        }
+    }
 
-            // Проверяем наличие остальных полей
-            if (parts.length > 2 && parts[2] != null && !parts[2].trim().isEmpty()) {
-                name = parts[2].trim();
+    private void putLoaded(Task task) {
+        if (task instanceof Epic epic) {
+            Epic previous = epics.get(epic.getId());
+            if (previous != null) {
+                previous.getSubtaskIds().forEach(epic::addSubtaskId);
+            }
+            epics.put(epic.getId(), epic);
+        } else if (task instanceof Subtask subtask) {
+            Subtask previous = subtasks.put(subtask.getId(), subtask);
+            if (previous != null && previous.getEpicId() != subtask.getEpicId()) {
+                Epic oldEpic = epics.get(previous.getEpicId());
+                if (oldEpic != null) {
+                    oldEpic.removeSubtaskId(subtask.getId());
+                }
             }
-            if (parts.length > 3 && parts[3] != null && !parts[3].trim().isEmpty()) {
-                status = TaskStatus.valueOf(parts[3].trim());
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.addSubtaskId(subtask.getId());
             }
-            if (parts.length > 4 && parts[4] != null && !parts[4].trim().isEmpty()) {
-                description = parts[4].trim();
+        } else {
+            tasks.put(task.getId(), task);
+        }
+    }
+
+    private void removeLoaded(int id) {
+        Epic epic = epics.remove(id);
+        if (epic != null) {
+            for (Integer subtaskId : epic.getSubtaskIds()) {
+                subtasks.remove(subtaskId);
+                historyManager.remove(subtaskId);
             }
-            if (parts.length > 5 && parts[5] != null && !parts[5].trim().isEmpty()) {
-                duration = Duration.ofMinutes(Long.parseLong(parts[5].trim()));
+        }
+        Subtask subtask = subtasks.remove(id);
+        if (subtask != null) {
+            Epic parent = epics.get(subtask.getEpicId());
+            if (parent != null) {
+                parent.removeSubtaskId(id);
             }
-            if (parts.length > 6 && parts[6] != null && !parts[6].trim().isEmpty()) {
-                startTime = LocalDateTime.parse(parts[6].trim(), FORMATTER);
+        }
+        tasks.remove(id);
+        historyManager.remove(id);
+    }
+
+    private void clearLoaded(TaskType type) {
+        switch (type) {
+            case TASK -> {
+                tasks.keySet().forEach(historyManager::remove);
+                tasks.clear();
             }
-            if (type == TaskType.SUBTASK) {
-                if (parts.length < 8 || parts[7] == null || parts[7].trim().isEmpty()) {
-                    System.err.println("Недостаточно полей для подзадачи или отсутствует epicId: " + line);
-                    return null;
+            case SUBTASK -> {
+                subtasks.keySet().forEach(historyManager::remove);
+                subtasks.clear();
+                for (Epic epic : epics.values()) {
+                    epic.getSubtaskIds().forEach(epic::removeSubtaskId);
                 }
-                epicId = Integer.parseInt(parts[7].trim());
-                if (epicId == 0) {
-                    System.err.println("Некорректный epicId для подзадачи: " + line);
-                    return null;
+            }
+            case EPIC -> {
+                epics.keySet().forEach(historyManager::remove);
+                subtasks.keySet().forEach(historyManager::remove);
+                epics.clear();
+                subtasks.clear();
+            }
+        }
+    }
+
+    private void addLoadedView(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        if (task != null) {
+            historyManager.restore(task);
+        }
+    }
+
+    // Восстанавливает производные структуры после чтения снимка и журнала
+    private void rebuildState() {
+        rebuildState(null, loadReport);
+    }
+
+    private void rebuildState(ForkJoinPool pool, LoadReport report) {
+        report.measure(LoadReport.Phase.INDEX, () -> {
+            prioritizedTasks.clear();
+            List<Task> scheduled = new ArrayList<>(tasks.size() + subtasks.size());
+            scheduled.addAll(tasks.values());
+            scheduled.addAll(subtasks.values());
+            prioritizedTasks.addAll(scheduled);
+
+            // Обновляем счетчик ID
+            int maxId = Math.max(
+                    tasks.keySet().stream().mapToInt(Integer::intValue).max().orElse(0),
+                    Math.max(
+                            epics.keySet().stream().mapToInt(Integer::intValue).max().orElse(0),
+                            subtasks.keySet().stream().mapToInt(Integer::intValue).max().orElse(0)
+                    )
+            );
+            counterId = maxId + 1;
+        });
+
+        // Обновляем статусы и время эпиков
+        report.measure(LoadReport.Phase.EPICS, () -> {
+            if (pool == null) {
+                for (Epic epic : epics.values()) {
+                    rebuildEpicAggregate(epic);
                 }
+                return;
             }
-        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
-            System.err.println("Ошибка парсинга строки: " + line + ", причина: " + e.getMessage());
-            return null;
+            // Эпики независимы: показатели считаются параллельно, карта заполняется в одном потоке
+            List<Epic> epicList = new ArrayList<>(epics.values());
+            List<EpicAggregate> aggregates = pool.submit(() -> epicList.parallelStream()
+                    .map(this::computeEpicAggregate)
+                    .toList()).join();
+            for (int i = 0; i < epicList.size(); i++) {
+                epicAggregates.put(epicList.get(i).getId(), aggregates.get(i));
+                aggregates.get(i).applyTo(epicList.get(i));
+            }
+        });
+    }
+
+    // Выполняет изменение под монитором и дожидается его фиксации уже вне монитора
+    private <T> T persisted(Supplier<T> action, Function<T, String> record) {
+        T result;
+        long ticket;
+        synchronized (this) {
+            result = action.get();
+            ticket = persist(record.apply(result));
         }
+        awaitCommit(ticket);
+        return result;
+    }
 
-        Task task;
-        switch (type) {
-            case TASK:
-                task = new Task(name, description, status, duration, startTime);
-                break;
-            case EPIC:
-                task = new Epic(name, description);
-                task.setStatus(status);
-                task.setDuration(duration);
-                task.setStartTime(startTime);
-                ((Epic) task).setEndTime(startTime != null && duration != null ? startTime.plus(duration) : null);
-                break;
-            case SUBTASK:
-                task = new Subtask(name, description, status, epicId, duration, startTime);
-                break;
-            default:
-                System.err.println("Неизвестный тип задачи: " + line);
-                return null;
-        }
-        task.setId(id);
-        return task;
+    // Вариант для операций без результата: действие возвращает запись журнала или null
+    private void persisted(Supplier<String> mutation) {
+        long ticket;
+        synchronized (this) {
+            ticket = persist(mutation.get());
+        }
+        awaitCommit(ticket);
+    }
+
+    /**
+     * Сохраняет изменение: в режиме снимка — полной перезаписью, в режиме журнала — одной записью.
+     * Вызывается под монитором менеджера. Возвращает номер для ожидания фиксации или 0,
+     * если ждать нечего. Пустая запись означает, что операция ничего не изменила.
+     */
+    private long persist(String record) {
+        if (record == null) {
+            return 0;
+        }
+        if (journal == null || !journalStarted || journalRecords >= config.getCompactionThreshold()) {
+            journalStarted = true;
+            journalRecords = 0;
+            if (writer == null) {
+                commitSnapshot(true);
+                return 0;
+            }
+            return writer.requestSnapshot();
+        }
+        journalRecords++;
+        if (writer == null) {
+            journal.append(record);
+            journal.sync();
+            return 0;
+        }
+        return writer.submit(record);
+    }
+
+    private void awaitCommit(long ticket) {
+        // Вложенный вызов (deleteEpics → deleteSubtasks) не ждёт под монитором: дождётся внешний
+        if (ticket > 0 && config.getDurability() == Durability.GROUP && !Thread.holdsLock(this)) {
+            writer.await(ticket);
+        }
+    }
+
+    // Записывает просмотр в журнал истории; данные задач при этом не перезаписываются
+    private void recordView(Task task) {
+        if (task == null) {
+            return;
+        }
+        if (!historyStarted) {
+            // Журнал от чужого состояния не должен смешиваться с новым
+            historyLog.reset();
+            historyStarted = true;
+        }
+        historyLog.append(String.valueOf(task.getId()));
+        recordedViews++;
+        if (historyLog.size() >= config.getCompactionThreshold()) {
+            compactHistoryLog();
+        } else if (config.getHistoryFlushPolicy() == HistoryFlushPolicy.EAGER) {
+            historyLog.flush();
+        }
+    }
+
+    // Повторные просмотры одной задачи не нужны: достаточно текущего порядка истории
+    private void compactHistoryLog() {
+        List<String> ids = new ArrayList<>();
+        for (Task task : historyManager.getHistory()) {
+            ids.add(String.valueOf(task.getId()));
+        }
+        historyLog.rewrite(ids);
+    }
+
+    private ScheduledExecutorService startHistoryFlusher(long intervalMillis) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> {
+            try {
+                historyLog.flush();
+            } catch (ManagerSaveException e) {
+                System.err.println("Не удалось сбросить историю: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    private String putRecord(Task task) {
+        return task == null ? null : RECORD_PUT + "," + codec.format(task);
     }
 
+    private static String deleteRecord(int id) {
+        return RECORD_DELETE + "," + id;
+    }
+
+    private static String clearRecord(TaskType type) {
+        return RECORD_CLEAR + "," + type;
+    }
+
+
     private static List<Integer> historyFromString(String line) {
         List<Integer> historyIds = new ArrayList<>();
         if (line == null || line.isEmpty()) {
@@ -239,99 +725,142 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
     @Override
     public Task createTask(Task task) {
-        Task createdTask = super.createTask(task);
-        save();
-        return createdTask;
+        return persisted(() -> super.createTask(task), this::putRecord);
     }
 
     @Override
     public Epic createEpic(Epic epic) {
-        Epic createdEpic = super.createEpic(epic);
-        save();
-        return createdEpic;
+        return persisted(() -> super.createEpic(epic), this::putRecord);
     }
 
     @Override
     public Subtask createSubtask(Subtask subtask) {
-        Subtask createdSubtask = super.createSubtask(subtask);
-        if (createdSubtask != null) {
-            save();
-        }
-        return createdSubtask;
+        return persisted(() -> super.createSubtask(subtask), this::putRecord);
     }
 
     @Override
     public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
+        persisted(() -> {
+            super.updateTask(task);
+            return task == null ? null : putRecord(tasks.get(task.getId()));
+        });
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        super.updateEpic(epic);
-        save();
+        persisted(() -> {
+            super.updateEpic(epic);
+            return epic == null ? null : putRecord(epics.get(epic.getId()));
+        });
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
-        super.updateSubtask(subtask);
-        save();
+        persisted(() -> {
+            super.updateSubtask(subtask);
+            return subtask == null ? null : putRecord(subtasks.get(subtask.getId()));
+        });
     }
 
     @Override
     public void deleteTask(int id) {
-        super.deleteTask(id);
-        save();
+        persisted(() -> {
+            boolean existed = tasks.containsKey(id);
+            super.deleteTask(id);
+            return existed ? deleteRecord(id) : null;
+        });
     }
 
     @Override
     public void deleteEpic(int id) {
-        super.deleteEpic(id);
-        save();
+        persisted(() -> {
+            boolean existed = epics.containsKey(id);
+            super.deleteEpic(id);
+            return existed ? deleteRecord(id) : null;
+        });
     }
 
     @Override
     public void deleteSubtask(int id) {
-        super.deleteSubtask(id);
-        save();
+        persisted(() -> {
+            boolean existed = subtasks.containsKey(id);
+            super.deleteSubtask(id);
+            return existed ? deleteRecord(id) : null;
+        });
     }
 
     @Override
     public void deleteTasks() {
-        super.deleteTasks();
-        save();
+        persisted(() -> {
+            super.deleteTasks();
+            return clearRecord(TaskType.TASK);
+        });
     }
 
     @Override
     public void deleteSubtasks() {
-        super.deleteSubtasks();
-        save();
+        persisted(() -> {
+            super.deleteSubtasks();
+            return clearRecord(TaskType.SUBTASK);
+        });
     }
 
     @Override
     public void deleteEpics() {
-        super.deleteEpics();
-        save();
+        persisted(() -> {
+            super.deleteEpics();
+            return clearRecord(TaskType.EPIC);
+        });
+    }
+
+    @Override
+    public synchronized List<Task> getAllTasks() {
+        return super.getAllTasks();
+    }
+
+    @Override
+    public synchronized List<Epic> getAllEpics() {
+        return super.getAllEpics();
+    }
+
+    @Override
+    public synchronized List<Subtask> getAllSubtasks() {
+        return super.getAllSubtasks();
+    }
+
+    @Override
+    public synchronized List<Subtask> getEpicSubtasks(int epicId) {
+        return super.getEpicSubtasks(epicId);
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks() {
+        return super.getPrioritizedTasks();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return super.getHistory();
     }
 
     @Override
-    public Task getTask(int id) {
+    public synchronized Task getTask(int id) {
         Task task = super.getTask(id);
-        save();
+        recordView(task);
         return task;
     }
 
     @Override
-    public Epic getEpic(int id) {
+    public synchronized Epic getEpic(int id) {
         Epic epic = super.getEpic(id);
-        save();
+        recordView(epic);
         return epic;
     }
 
     @Override
-    public Subtask getSubtask(int id) {
+    public synchronized Subtask getSubtask(int id) {
         Subtask subtask = super.getSubtask(id);
-        save();
+        recordView(subtask);
         return subtask;
     }
-}
\ No newline at end of file
+}
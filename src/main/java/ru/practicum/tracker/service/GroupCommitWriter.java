@@ -0,0 +1,185 @@
+package ru.practicum.tracker.service;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Фоновый писатель с групповой фиксацией.
+ * <p>
+ * Записи, поступившие в течение окна накопления, передаются приёмнику одной пачкой, после чего
+ * ожидающие вызывающие потоки освобождаются разом. Запрос снимка поглощает все записи своей пачки:
+ * снимок и так содержит их результат. Каждой отправке выдаётся номер, по которому можно дождаться
+ * её фиксации.
+ */
+public class GroupCommitWriter implements Closeable {
+
+    // Приёмник пачек; вызывается только из фонового потока
+    public interface BatchSink {
+        void commit(List<String> records, boolean snapshot, boolean sync);
+    }
+
+    private final BatchSink sink;
+    private final boolean sync;
+    private final long windowNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingChanged = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private final Thread thread;
+
+    private List<String> pending = new ArrayList<>();
+    private boolean snapshotRequested;
+    private long submitted;
+    private long durable;
+    private boolean running = true;
+    private RuntimeException failure;
+
+    public GroupCommitWriter(String name, BatchSink sink, boolean sync, long windowMillis) {
+        this.sink = sink;
+        this.sync = sync;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Ставит запись в очередь и возвращает номер для ожидания
+    public long submit(String record) {
+        lock.lock();
+        try {
+            ensureOpen();
+            pending.add(record);
+            pendingChanged.signal();
+            return ++submitted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Запрашивает полный снимок; несколько запросов в одном окне дают один снимок
+    public long requestSnapshot() {
+        lock.lock();
+        try {
+            ensureOpen();
+            snapshotRequested = true;
+            pendingChanged.signal();
+            return ++submitted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ждёт фиксации отправки с указанным номером.
+     * Ошибка фонового потока пробрасывается ожидающим.
+     */
+    public void await(long ticket) {
+        lock.lock();
+        try {
+            while (durable < ticket && failure == null) {
+                committed.awaitUninterruptibly();
+            }
+            if (durable < ticket) {
+                throw new ManagerSaveException("Ошибка фоновой записи: " + failure.getMessage(), failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ждёт фиксации всего, что было отправлено до вызова
+    public void flush() {
+        long ticket;
+        lock.lock();
+        try {
+            ticket = submitted;
+        } finally {
+            lock.unlock();
+        }
+        await(ticket);
+    }
+
+    // Дописывает оставшиеся пачки и останавливает фоновый поток
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            pendingChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<String> batch;
+            boolean snapshot;
+            long ticket;
+            lock.lock();
+            try {
+                while (running && pending.isEmpty() && !snapshotRequested) {
+                    pendingChanged.awaitUninterruptibly();
+                }
+                if (pending.isEmpty() && !snapshotRequested) {
+                    return;
+                }
+                // Окно накопления: даём остальным операциям попасть в ту же пачку
+                long remaining = windowNanos;
+                while (running && remaining > 0) {
+                    try {
+                        remaining = pendingChanged.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                batch = pending;
+                snapshot = snapshotRequested;
+                ticket = submitted;
+                pending = new ArrayList<>();
+                snapshotRequested = false;
+            } finally {
+                lock.unlock();
+            }
+
+            RuntimeException error = null;
+            try {
+                sink.commit(snapshot ? List.of() : batch, snapshot, sync);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durable = ticket;
+                }
+                committed.signalAll();
+                if (failure != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (failure != null) {
+            throw new ManagerSaveException("Ошибка фоновой записи: " + failure.getMessage(), failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Писатель остановлен");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.tracker.service;
+
+// Когда просмотры из журнала истории попадают на диск
+public enum HistoryFlushPolicy {
+    // Сразу после каждого просмотра
+    EAGER,
+    // По таймеру с периодом StorageConfig#getHistoryFlushIntervalMillis
+    PERIODIC,
+    // Только при сохранении снимка, явном flushHistory() и закрытии менеджера
+    LAZY
+}
@@ -1,33 +1,50 @@
 package ru.practicum.tracker.service;
 
 import ru.practicum.tracker.history.HistoryManager;
+import ru.practicum.tracker.history.ViewCount;
 import ru.practicum.tracker.model.Epic;
 import ru.practicum.tracker.model.Subtask;
 import ru.practicum.tracker.model.Task;
-import ru.practicum.tracker.model.TaskStatus;
+import ru.practicum.tracker.model.TaskType;
 import ru.practicum.tracker.util.Managers;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class InMemoryTaskManager implements TaskManager {
     protected int counterId = 1;
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
+    protected final Map<Integer, Task> tasks;
+    protected final Map<Integer, Epic> epics;
+    protected final Map<Integer, Subtask> subtasks;
     protected final HistoryManager historyManager;
-    protected final Set<Task> prioritizedTasks = new TreeSet<>(
-            Comparator.comparing(Task::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
-                    .thenComparing(Task::getId)
-    );
+    protected final TimeSlotIndex prioritizedTasks;
+    protected final Map<Integer, EpicAggregate> epicAggregates;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLongArray typeVersions = new AtomicLongArray(TaskType.values().length);
 
     public InMemoryTaskManager() {
-        this.historyManager = Managers.getDefaultHistory();
+        this(Managers.getDefaultHistory());
     }
 
     public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new HashMap<>(), new HashMap<>(), new HashMap<>(), new TimeSlotIndex(),
+                new HashMap<>());
+    }
+
+    // Позволяет наследникам подставить собственные реализации коллекций (например, потокобезопасные)
+    protected InMemoryTaskManager(HistoryManager historyManager,
+                                  Map<Integer, Task> tasks,
+                                  Map<Integer, Epic> epics,
+                                  Map<Integer, Subtask> subtasks,
+                                  TimeSlotIndex prioritizedTasks,
+                                  Map<Integer, EpicAggregate> epicAggregates) {
         this.historyManager = historyManager;
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.prioritizedTasks = prioritizedTasks;
+        this.epicAggregates = epicAggregates;
     }
 
     @Override
@@ -52,9 +69,8 @@ public class InMemoryTaskManager implements TaskManager {
         }
         task.setId(generateId());
         tasks.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        prioritizedTasks.add(task);
+        markModified(TaskType.TASK);
         return task;
     }
 
@@ -62,8 +78,8 @@ public class InMemoryTaskManager implements TaskManager {
     public Epic createEpic(Epic epic) {
         epic.setId(generateId());
         epics.put(epic.getId(), epic);
-        updateEpicStatus(epic);
-        updateEpicTime(epic);
+        rebuildEpicAggregate(epic);
+        markModified(TaskType.EPIC);
         return epic;
     }
 
@@ -82,11 +98,11 @@ public class InMemoryTaskManager implements TaskManager {
         subtask.setId(generateId());
         subtasks.put(subtask.getId(), subtask);
         epic.addSubtaskId(subtask.getId());
-        updateEpicStatus(epic);
-        updateEpicTime(epic);
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        }
+        EpicAggregate aggregate = aggregateOf(epic);
+        aggregate.put(subtask);
+        aggregate.applyTo(epic);
+        prioritizedTasks.add(subtask);
+        markModified(TaskType.SUBTASK, TaskType.EPIC);
         return subtask;
     }
 
@@ -131,7 +147,7 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return prioritizedTasks.toList();
     }
 
     @Override
@@ -144,11 +160,9 @@ public class InMemoryTaskManager implements TaskManager {
             throw new ManagerConflictException("Задача пересекается по времени с другой");
         }
 
-        prioritizedTasks.remove(tasks.get(task.getId()));
         tasks.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        prioritizedTasks.add(task);
+        markModified(TaskType.TASK);
     }
 
     @Override
@@ -159,6 +173,7 @@ public class InMemoryTaskManager implements TaskManager {
         Epic savedEpic = epics.get(epic.getId());
         savedEpic.setName(epic.getName());
         savedEpic.setDescription(epic.getDescription());
+        markModified(TaskType.EPIC);
     }
 
     @Override
@@ -166,30 +181,40 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtask == null || !subtasks.containsKey(subtask.getId())) {
             return;
         }
+        // Перенос в несуществующий эпик не выполняется
+        Epic epic = epics.get(subtask.getEpicId());
+        if (epic == null) {
+            return;
+        }
 
         if (hasTimeConflict(subtask)) {
             throw new ManagerConflictException("Подзадача пересекается по времени с другой");
         }
 
-        prioritizedTasks.remove(subtasks.get(subtask.getId()));
+        Epic previousEpic = epicOf(subtasks.get(subtask.getId()));
         subtasks.put(subtask.getId(), subtask);
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        }
+        prioritizedTasks.add(subtask);
 
-        Epic epic = epics.get(subtask.getEpicId());
-        if (epic != null) {
-            updateEpicStatus(epic);
-            updateEpicTime(epic);
+        if (previousEpic != null && previousEpic != epic) {
+            previousEpic.removeSubtaskId(subtask.getId());
+            EpicAggregate previousAggregate = aggregateOf(previousEpic);
+            previousAggregate.remove(subtask.getId());
+            previousAggregate.applyTo(previousEpic);
         }
+        epic.addSubtaskId(subtask.getId());
+        EpicAggregate aggregate = aggregateOf(epic);
+        aggregate.put(subtask);
+        aggregate.applyTo(epic);
+        markModified(TaskType.SUBTASK, TaskType.EPIC);
     }
 
     @Override
     public void deleteTask(int id) {
         Task task = tasks.remove(id);
         if (task != null) {
-            prioritizedTasks.remove(task);
+            prioritizedTasks.remove(task.getId());
             historyManager.remove(id);
+            markModified(TaskType.TASK);
         }
     }
 
@@ -197,14 +222,16 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteEpic(int id) {
         Epic epic = epics.remove(id);
         if (epic != null) {
+            epicAggregates.remove(id);
             for (Integer subtaskId : epic.getSubtaskIds()) {
                 Subtask subtask = subtasks.remove(subtaskId);
                 if (subtask != null) {
-                    prioritizedTasks.remove(subtask);
+                    prioritizedTasks.remove(subtask.getId());
                     historyManager.remove(subtaskId);
                 }
             }
             historyManager.remove(id);
+            markModified(TaskType.EPIC, TaskType.SUBTASK);
         }
     }
 
@@ -212,38 +239,43 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteSubtask(int id) {
         Subtask subtask = subtasks.remove(id);
         if (subtask != null) {
-            prioritizedTasks.remove(subtask);
+            prioritizedTasks.remove(subtask.getId());
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
                 epic.removeSubtaskId(id);
-                updateEpicStatus(epic);
-                updateEpicTime(epic);
+                EpicAggregate aggregate = aggregateOf(epic);
+                aggregate.remove(id);
+                aggregate.applyTo(epic);
             }
             historyManager.remove(id);
+            markModified(TaskType.SUBTASK, TaskType.EPIC);
         }
     }
 
     @Override
     public void deleteTasks() {
         for (Task task : tasks.values()) {
-            prioritizedTasks.remove(task);
+            prioritizedTasks.remove(task.getId());
             historyManager.remove(task.getId());
         }
         tasks.clear();
+        markModified(TaskType.TASK);
     }
 
     @Override
     public void deleteSubtasks() {
         for (Subtask subtask : subtasks.values()) {
-            prioritizedTasks.remove(subtask);
+            prioritizedTasks.remove(subtask.getId());
             historyManager.remove(subtask.getId());
         }
         subtasks.clear();
         for (Epic epic : epics.values()) {
             epic.getSubtaskIds().clear();
-            updateEpicStatus(epic);
-            updateEpicTime(epic);
+            EpicAggregate aggregate = aggregateOf(epic);
+            aggregate.clear();
+            aggregate.applyTo(epic);
         }
+        markModified(TaskType.SUBTASK, TaskType.EPIC);
     }
 
     @Override
@@ -253,10 +285,12 @@ public class InMemoryTaskManager implements TaskManager {
             historyManager.remove(epic.getId());
         }
         epics.clear();
+        epicAggregates.clear();
         deleteSubtasks();
         for (Integer id : epicIds) {
             historyManager.remove(id);
         }
+        markModified(TaskType.EPIC, TaskType.SUBTASK);
     }
 
     @Override
@@ -264,99 +298,78 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
-    protected void updateEpicStatus(Epic epic) {
-        List<Subtask> epicSubtasks = getEpicSubtasks(epic.getId());
-        if (epicSubtasks.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
-            return;
-        }
-
-        boolean allNew = true;
-        boolean allDone = true;
-
-        for (Subtask subtask : epicSubtasks) {
-            if (subtask.getStatus() != TaskStatus.NEW) {
-                allNew = false;
-            }
-            if (subtask.getStatus() != TaskStatus.DONE) {
-                allDone = false;
-            }
-        }
+    @Override
+    public List<ViewCount> getMostViewed(int limit) {
+        return historyManager.getMostViewed(limit);
+    }
 
-        if (allNew) {
-            epic.setStatus(TaskStatus.NEW);
-        } else if (allDone) {
-            epic.setStatus(TaskStatus.DONE);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
-        }
+    @Override
+    public long getVersion() {
+        return version.get();
     }
 
-    protected void updateEpicTime(Epic epic) {
-        List<Subtask> subtasks = getEpicSubtasks(epic.getId());
+    @Override
+    public long getVersion(TaskType type) {
+        return typeVersions.get(type.ordinal());
+    }
 
-        if (subtasks.isEmpty()) {
-            epic.setStartTime(null);
-            epic.setDuration(null);
-            epic.setEndTime(null);
-            return;
+    /**
+     * Отмечает изменение коллекций: общая версия увеличивается, версии типов получают её значение.
+     * Вызывается после изменения, поэтому тот, кто прочитал новую версию, увидит и сами данные.
+     * Изменения объектов в обход менеджера версию не меняют.
+     */
+    protected void markModified(TaskType... types) {
+        long modified = version.incrementAndGet();
+        for (TaskType type : types) {
+            // max, а не set: параллельное изменение с меньшим номером не откатит версию назад
+            typeVersions.accumulateAndGet(type.ordinal(), modified, Math::max);
         }
+    }
 
-        // Получаем минимальное время начала
-        LocalDateTime start = subtasks.stream()
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
-
-        // Получаем максимальное время окончания
-        LocalDateTime end = subtasks.stream()
-                .map(Subtask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
-
-        // Суммируем продолжительности
-        Duration duration = subtasks.stream()
-                .map(Subtask::getDuration)
-                .filter(Objects::nonNull)
-                .reduce(Duration.ZERO, Duration::plus);
-
-        epic.setStartTime(start);
-        epic.setDuration(duration.isZero() ? null : duration);
-        epic.setEndTime(end);
+    // Полностью пересчитывает показатели эпика по его подзадачам, O(k)
+    protected void rebuildEpicAggregate(Epic epic) {
+        EpicAggregate aggregate = computeEpicAggregate(epic);
+        epicAggregates.put(epic.getId(), aggregate);
+        aggregate.applyTo(epic);
     }
 
-    protected boolean hasTimeConflict(Task newTask) {
-        if (newTask.getStartTime() == null || newTask.getDuration() == null) {
-            return false;
+    // Считает показатели эпика заново, не меняя состояние менеджера
+    protected EpicAggregate computeEpicAggregate(Epic epic) {
+        EpicAggregate aggregate = new EpicAggregate();
+        for (Integer subtaskId : epic.getSubtaskIds()) {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                aggregate.put(subtask);
+            }
         }
+        return aggregate;
+    }
 
-        LocalDateTime newStart = newTask.getStartTime();
-        LocalDateTime newEnd = newTask.getEndTime();
-
-        for (Task existing : prioritizedTasks) {
-            if (existing.getId() == newTask.getId()) {
-                continue;
-            }
-            if (existing.getStartTime() == null || existing.getDuration() == null) {
-                continue;
+    // Эпик, в показатели которого подзадача входит сейчас. Сохранённый объект могли изменить
+    // на месте, поэтому при расхождении эпик ищется по накопленным показателям
+    private Epic epicOf(Subtask stored) {
+        Epic epic = epics.get(stored.getEpicId());
+        EpicAggregate aggregate = epic == null ? null : epicAggregates.get(epic.getId());
+        if (aggregate != null && aggregate.contains(stored.getId())) {
+            return epic;
+        }
+        for (Map.Entry<Integer, EpicAggregate> entry : epicAggregates.entrySet()) {
+            if (entry.getValue().contains(stored.getId())) {
+                return epics.get(entry.getKey());
             }
+        }
+        return epic;
+    }
 
-            LocalDateTime existingStart = existing.getStartTime();
-            LocalDateTime existingEnd = existing.getEndTime();
+    private EpicAggregate aggregateOf(Epic epic) {
+        return epicAggregates.computeIfAbsent(epic.getId(), id -> new EpicAggregate());
+    }
 
-            if (newStart.isEqual(existingStart)) {
-                continue; // Разрешаем задачи с одинаковым временем начала
-            }
-            if (newStart.isBefore(existingEnd) && existingStart.isBefore(newEnd)) {
-                return true;
-            }
-        }
-        return false;
+    protected boolean hasTimeConflict(Task newTask) {
+        return prioritizedTasks.hasConflict(newTask);
     }
 
-    private int generateId() {
+    protected int generateId() {
         return counterId++;
     }
 }
\ No newline at end of file
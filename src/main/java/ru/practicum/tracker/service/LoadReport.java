@@ -0,0 +1,53 @@
+package ru.practicum.tracker.service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Время этапов загрузки {@link FileBackedTaskManager} из файла.
+ * При последовательной загрузке чтение, разбор и слияние снимка учитываются одним этапом PARSE.
+ */
+public class LoadReport {
+
+    public enum Phase {
+        READ,
+        PARSE,
+        MERGE,
+        JOURNAL,
+        HISTORY,
+        INDEX,
+        EPICS
+    }
+
+    private final Map<Phase, Duration> phases = new EnumMap<>(Phase.class);
+
+    public Duration getPhase(Phase phase) {
+        return phases.getOrDefault(phase, Duration.ZERO);
+    }
+
+    public Map<Phase, Duration> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    public Duration getTotal() {
+        return phases.values().stream().reduce(Duration.ZERO, Duration::plus);
+    }
+
+    void measure(Phase phase, Runnable action) {
+        long started = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            phases.merge(phase, Duration.ofNanos(System.nanoTime() - started), Duration::plus);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("LoadReport{");
+        phases.forEach((phase, duration) -> sb.append(phase).append('=').append(duration.toMillis()).append("ms, "));
+        return sb.append("total=").append(getTotal().toMillis()).append("ms}").toString();
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.tracker.service;
+
+public enum PersistenceMode {
+    // Полная перезапись файла при каждом изменении
+    SNAPSHOT,
+    // Дозапись изменений в журнал с периодическим сжатием в снимок
+    JOURNAL
+}
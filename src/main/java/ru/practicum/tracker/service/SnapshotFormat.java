@@ -0,0 +1,8 @@
+package ru.practicum.tracker.service;
+
+public enum SnapshotFormat {
+    // Текстовый CSV: id,type,name,status,description,duration,startTime,epic
+    CSV,
+    // Двоичный формат BinarySnapshotCodec с загрузкой через отображение файла в память
+    BINARY
+}
@@ -0,0 +1,97 @@
+package ru.practicum.tracker.service;
+
+/**
+ * Настройки файлового хранилища {@link FileBackedTaskManager}.
+ * По умолчанию каждое изменение записывает полный снимок и дожидается fsync (Durability.SYNC);
+ * прежняя версия не вызывала fsync. Без ожидания диска — {@link Durability#ASYNC}.
+ */
+public class StorageConfig {
+    private PersistenceMode mode = PersistenceMode.SNAPSHOT;
+    private int compactionThreshold = 10_000;
+    private HistoryFlushPolicy historyFlushPolicy = HistoryFlushPolicy.EAGER;
+    private long historyFlushIntervalMillis = 1_000;
+    private Durability durability = Durability.SYNC;
+    private long groupCommitWindowMillis = 5;
+    private SnapshotFormat snapshotFormat = SnapshotFormat.CSV;
+    private int loadParallelism = 1;
+
+    public PersistenceMode getMode() {
+        return mode;
+    }
+
+    public void setMode(PersistenceMode mode) {
+        this.mode = mode;
+    }
+
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    // Количество записей журнала, после которого журнал сворачивается в новый снимок
+    public void setCompactionThreshold(int compactionThreshold) {
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Порог сжатия журнала должен быть положительным");
+        }
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public HistoryFlushPolicy getHistoryFlushPolicy() {
+        return historyFlushPolicy;
+    }
+
+    public void setHistoryFlushPolicy(HistoryFlushPolicy historyFlushPolicy) {
+        this.historyFlushPolicy = historyFlushPolicy;
+    }
+
+    public long getHistoryFlushIntervalMillis() {
+        return historyFlushIntervalMillis;
+    }
+
+    // Период сброса истории на диск для политики PERIODIC
+    public void setHistoryFlushIntervalMillis(long historyFlushIntervalMillis) {
+        if (historyFlushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Период сброса истории должен быть положительным");
+        }
+        this.historyFlushIntervalMillis = historyFlushIntervalMillis;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+
+    public long getGroupCommitWindowMillis() {
+        return groupCommitWindowMillis;
+    }
+
+    // Сколько фоновый писатель ждёт другие операции перед записью пачки
+    public void setGroupCommitWindowMillis(long groupCommitWindowMillis) {
+        if (groupCommitWindowMillis < 0) {
+            throw new IllegalArgumentException("Окно накопления не может быть отрицательным");
+        }
+        this.groupCommitWindowMillis = groupCommitWindowMillis;
+    }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    public void setSnapshotFormat(SnapshotFormat snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    public int getLoadParallelism() {
+        return loadParallelism;
+    }
+
+    // Число потоков разбора CSV-снимка при загрузке; 1 — последовательная загрузка
+    public void setLoadParallelism(int loadParallelism) {
+        if (loadParallelism <= 0) {
+            throw new IllegalArgumentException("Число потоков загрузки должно быть положительным");
+        }
+        this.loadParallelism = loadParallelism;
+    }
+}
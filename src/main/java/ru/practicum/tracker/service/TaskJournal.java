@@ -0,0 +1,150 @@
+package ru.practicum.tracker.service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Файл записей с дозаписью в конец: одна строка на операцию.
+ * Стоимость записи не зависит от количества хранимых задач.
+ * Записи буферизуются до вызова {@link #flush()}; методы потокобезопасны.
+ */
+public class TaskJournal implements Closeable {
+    private final File file;
+    private FileOutputStream output;
+    private Writer writer;
+    private int records;
+
+    public TaskJournal(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized boolean exists() {
+        return file.exists();
+    }
+
+    // Количество записей с момента последнего сжатия
+    public synchronized int size() {
+        return records;
+    }
+
+    public synchronized void append(String record) {
+        try {
+            if (writer == null) {
+                output = new FileOutputStream(file, true);
+                writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            }
+            writer.write(record);
+            writer.write('\n');
+            records++;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + e.getMessage(), e);
+        }
+    }
+
+    // Передаёт накопленные записи операционной системе
+    public synchronized void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Передаёт записи журнала обработчику в порядке их добавления.
+     */
+    public synchronized void replay(Consumer<String> handler) {
+        records = 0;
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    handler.accept(line);
+                    records++;
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала: " + e.getMessage(), e);
+        }
+    }
+
+    // Сбрасывает буфер и дожидается записи на устройство (fsync)
+    public synchronized void sync() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+            output.getFD().sync();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Заменяет содержимое журнала переданными записями. Новый файл пишется рядом
+     * и подменяет старый, поэтому сбой посередине не оставляет журнал обрезанным.
+     */
+    public synchronized void rewrite(Iterable<String> newRecords) {
+        close();
+        File temp = new File(file.getPath() + ".tmp");
+        int count = 0;
+        try (Writer out = new BufferedWriter(new FileWriter(temp, StandardCharsets.UTF_8))) {
+            for (String record : newRecords) {
+                out.write(record);
+                out.write('\n');
+                count++;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка перезаписи журнала: " + e.getMessage(), e);
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка перезаписи журнала: " + e.getMessage(), e);
+        }
+        records = count;
+    }
+
+    // Очищает журнал после того, как его содержимое попало в снимок
+    public synchronized void reset() {
+        close();
+        try {
+            Files.newOutputStream(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE).close();
+            records = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка очистки журнала: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка закрытия журнала: " + e.getMessage(), e);
+        } finally {
+            writer = null;
+            output = null;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.tracker.service;
 
+import ru.practicum.tracker.history.ViewCount;
 import ru.practicum.tracker.model.Epic;
 import ru.practicum.tracker.model.Subtask;
 import ru.practicum.tracker.model.Task;
+import ru.practicum.tracker.model.TaskType;
 
 import java.util.List;
 
@@ -48,4 +50,13 @@ public interface TaskManager {
     void deleteEpics();
 
     List<Task> getHistory();
+
+    // Самые просматриваемые задачи по убыванию числа просмотров, не больше limit
+    List<ViewCount> getMostViewed(int limit);
+
+    // Номер последнего изменения хранилища; растёт монотонно, просмотры его не меняют
+    long getVersion();
+
+    // Номер последнего изменения, затронувшего коллекцию указанного типа
+    long getVersion(TaskType type);
 }
\ No newline at end of file
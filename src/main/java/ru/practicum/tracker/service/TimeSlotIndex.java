@@ -0,0 +1,172 @@
+package ru.practicum.tracker.service;
+
+import ru.practicum.tracker.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Упорядоченный по времени начала индекс задач для списка приоритетов и поиска пересечений.
+ * <p>
+ * Задачи группируются по времени начала, внутри группы упорядочены по id. Для каждой задачи
+ * запоминается интервал, с которым она была добавлена, поэтому последующие изменения полей
+ * объекта не ломают индекс: удаление выполняется по id.
+ * <p>
+ * Поиск пересечения опирается на инвариант, который поддерживает менеджер: две задачи с разным
+ * временем начала не пересекаются (задачи с одинаковым началом допускаются). Поэтому достаточно
+ * проверить задачи, начинающиеся внутри нового интервала, и ближайшую предыдущую группу
+ * с заданной продолжительностью — это O(log n) вместо полного перебора.
+ */
+public class TimeSlotIndex {
+
+    private record Slot(Task task, LocalDateTime start, LocalDateTime end) {
+        boolean isTimed() {
+            return end != null;
+        }
+    }
+
+    private static final Comparator<Task> BY_START_THEN_ID = Comparator
+            .comparing(Task::getStartTime)
+            .thenComparingInt(Task::getId);
+
+    private final NavigableMap<LocalDateTime, NavigableMap<Integer, Slot>> byStart = new TreeMap<>();
+    private final Map<Integer, Slot> byId = new HashMap<>();
+
+    /**
+     * Добавляет задачу или заменяет ранее добавленную с тем же id.
+     * Задачи без времени начала в индекс не попадают.
+     */
+    public void add(Task task) {
+        remove(task.getId());
+        if (task.getStartTime() == null) {
+            return;
+        }
+        Slot slot = new Slot(task, task.getStartTime(), task.getEndTime());
+        byId.put(task.getId(), slot);
+        byStart.computeIfAbsent(slot.start(), key -> new TreeMap<>()).put(task.getId(), slot);
+    }
+
+    /**
+     * Добавляет набор задач. Пустой индекс строится из отсортированного (параллельно) массива:
+     * записи добавляются в конец по порядку, без удаления прежних версий по id.
+     */
+    public void addAll(Collection<? extends Task> source) {
+        if (!byId.isEmpty()) {
+            source.forEach(this::add);
+            return;
+        }
+        Task[] timed = source.stream()
+                .filter(task -> task.getStartTime() != null)
+                .toArray(Task[]::new);
+        Arrays.parallelSort(timed, BY_START_THEN_ID);
+
+        for (Task task : timed) {
+            if (byId.containsKey(task.getId())) {
+                add(task); // повтор id во входных данных заменяет прежнюю запись
+                continue;
+            }
+            Slot slot = new Slot(task, task.getStartTime(), task.getEndTime());
+            byId.put(task.getId(), slot);
+            Map.Entry<LocalDateTime, NavigableMap<Integer, Slot>> last = byStart.lastEntry();
+            if (last != null && last.getKey().equals(slot.start())) {
+                last.getValue().put(task.getId(), slot);
+            } else {
+                NavigableMap<Integer, Slot> group = new TreeMap<>();
+                group.put(task.getId(), slot);
+                byStart.put(slot.start(), group);
+            }
+        }
+    }
+
+    public void remove(int id) {
+        Slot slot = byId.remove(id);
+        if (slot == null) {
+            return;
+        }
+        NavigableMap<Integer, Slot> group = byStart.get(slot.start());
+        group.remove(id);
+        if (group.isEmpty()) {
+            byStart.remove(slot.start());
+        }
+    }
+
+    public boolean contains(int id) {
+        return byId.containsKey(id);
+    }
+
+    /**
+     * Проверяет, пересекается ли задача с уже добавленными (саму себя по id не учитывает).
+     * Задачи с одинаковым временем начала пересечением не считаются.
+     */
+    public boolean hasConflict(Task task) {
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        if (start == null || end == null) {
+            return false;
+        }
+        int id = task.getId();
+
+        // Любая задача с продолжительностью, начинающаяся строго внутри интервала, пересекается с ним
+        if (end.isAfter(start)) {
+            for (NavigableMap<Integer, Slot> group : byStart.subMap(start, false, end, false).values()) {
+                if (hasTimedOther(group, id)) {
+                    return true;
+                }
+            }
+        }
+
+        // Из более ранних задач пересечься может только ближайшая группа с продолжительностью:
+        // все задачи до неё по инварианту заканчиваются не позже её начала
+        for (NavigableMap<Integer, Slot> group : byStart.headMap(start, false).descendingMap().values()) {
+            if (!hasTimedOther(group, id)) {
+                continue;
+            }
+            for (Slot slot : group.values()) {
+                if (slot.task().getId() != id && slot.isTimed() && slot.end().isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает задачи в порядке времени начала, при равенстве — по id.
+     */
+    public List<Task> toList() {
+        List<Task> result = new ArrayList<>(byId.size());
+        for (NavigableMap<Integer, Slot> group : byStart.values()) {
+            for (Slot slot : group.values()) {
+                result.add(slot.task());
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public void clear() {
+        byStart.clear();
+        byId.clear();
+    }
+
+    private static boolean hasTimedOther(NavigableMap<Integer, Slot> group, int id) {
+        for (Slot slot : group.values()) {
+            if (slot.isTimed() && slot.task().getId() != id) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
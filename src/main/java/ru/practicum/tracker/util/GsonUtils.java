@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import ru.practicum.tracker.model.adapter.DurationAdapter;
 import ru.practicum.tracker.model.adapter.LocalDateTimeAdapter;
+import ru.practicum.tracker.model.adapter.TaskTypeAdapterFactory;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -13,6 +14,8 @@ public class GsonUtils {
         return new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                 .registerTypeAdapter(Duration.class, new DurationAdapter())
+                // Модель задач сериализуется без рефлексии, с полем type
+                .registerTypeAdapterFactory(new TaskTypeAdapterFactory())
                 .create();
     }
 }
\ No newline at end of file
@@ -1,12 +1,19 @@
 package ru.practicum.tracker.util;
 
+import ru.practicum.tracker.history.BoundedHistoryManager;
+import ru.practicum.tracker.history.ConcurrentHistoryManager;
 import ru.practicum.tracker.history.HistoryManager;
 import ru.practicum.tracker.history.InMemoryHistoryManager;
+import ru.practicum.tracker.history.PartitionedHistoryManager;
+import ru.practicum.tracker.history.ViewCountingHistoryManager;
+import ru.practicum.tracker.service.ConcurrentTaskManager;
 import ru.practicum.tracker.service.FileBackedTaskManager;
 import ru.practicum.tracker.service.InMemoryTaskManager;
+import ru.practicum.tracker.service.StorageConfig;
 import ru.practicum.tracker.service.TaskManager;
 
 import java.io.File;
+import java.time.Duration;
 
 public class Managers {
 
@@ -14,11 +21,39 @@ public class Managers {
         return new InMemoryTaskManager(getDefaultHistory());
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager(new ConcurrentHistoryManager());
+    }
+
     public static TaskManager getFileBackedManager(File file) {
         return new FileBackedTaskManager(file);
     }
 
+    public static TaskManager getFileBackedManager(File file, StorageConfig config) {
+        return new FileBackedTaskManager(file, config);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    // Добавляет к истории подсчёт просмотров для getMostViewed; без него список самых просматриваемых пуст
+    public static HistoryManager withViewStatistics(HistoryManager history) {
+        return new ViewCountingHistoryManager(history);
+    }
+
+    // История фиксированного размера для долго работающих процессов
+    public static HistoryManager getBoundedHistory(int capacity) {
+        return new BoundedHistoryManager(capacity);
+    }
+
+    // История для одновременных просмотров из многих потоков; capacity 0 — без ограничения
+    public static HistoryManager getConcurrentHistory(int capacity) {
+        return new ConcurrentHistoryManager(capacity);
+    }
+
+    // Отдельная история для каждого клиента; не больше maxPartitions разделов по partitionCapacity просмотров
+    public static HistoryManager getPartitionedHistory(int maxPartitions, int partitionCapacity, Duration idleTimeout) {
+        return new PartitionedHistoryManager(maxPartitions, partitionCapacity, idleTimeout);
+    }
 }
\ No newline at end of file
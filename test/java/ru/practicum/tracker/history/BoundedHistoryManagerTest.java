@@ -0,0 +1,88 @@
+package ru.practicum.tracker.history;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.model.Task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedHistoryManagerTest {
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Desc");
+        task.setId(id);
+        return task;
+    }
+
+    private static List<Integer> ids(HistoryManager history) {
+        return history.getHistory().stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void testOldestViewIsEvicted() {
+        BoundedHistoryManager history = new BoundedHistoryManager(3);
+        history.add(task(1));
+        history.add(task(2));
+        history.add(task(3));
+        history.add(task(1));
+        history.add(task(4));
+
+        assertEquals(List.of(3, 1, 4), ids(history), "Вытесняется самый давний просмотр");
+        assertEquals(3, history.size(), "Размер не превышает ёмкость");
+    }
+
+    @Test
+    void testRemoveFreesSlot() {
+        BoundedHistoryManager history = new BoundedHistoryManager(2);
+        history.add(task(1));
+        history.add(task(2));
+        history.remove(1);
+        history.remove(42);
+        history.add(task(3));
+
+        assertEquals(List.of(2, 3), ids(history), "Освобождённый слот используется повторно");
+    }
+
+    @Test
+    void testHistoryStoresSnapshot() {
+        BoundedHistoryManager history = new BoundedHistoryManager(2);
+        Task task = task(1);
+        history.add(task);
+        task.setName("Изменено");
+
+        assertEquals("Task 1", history.getHistory().get(0).getName(), "История хранит состояние на момент просмотра");
+    }
+
+    @Test
+    void testMatchesUnboundedHistoryTrimmedToCapacity() {
+        int capacity = 64;
+        BoundedHistoryManager history = new BoundedHistoryManager(capacity);
+        LinkedHashSet<Integer> expected = new LinkedHashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            // Id кратны размеру таблицы, чтобы получить длинные цепочки коллизий
+            int id = random.nextInt(200) * 128;
+            if (random.nextInt(4) == 0) {
+                history.remove(id);
+                expected.remove(id);
+            } else {
+                history.add(task(id));
+                expected.remove(id);
+                expected.add(id);
+                if (expected.size() > capacity) {
+                    expected.remove(expected.iterator().next());
+                }
+            }
+        }
+        assertEquals(new ArrayList<>(expected), ids(history), "Порядок должен совпадать с эталоном");
+    }
+
+    @Test
+    void testInvalidCapacityIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedHistoryManager(0));
+    }
+}
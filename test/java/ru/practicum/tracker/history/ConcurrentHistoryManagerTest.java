@@ -0,0 +1,134 @@
+package ru.practicum.tracker.history;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.model.Task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 100;
+    private static final int SHARED_IDS = 50;
+    private static final int VIEWS_PER_THREAD = 20_000;
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Desc");
+        task.setId(id);
+        return task;
+    }
+
+    private static List<Integer> ids(HistoryManager history) {
+        return history.getHistory().stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void testConcurrentViewsKeepPerThreadOrder() throws Exception {
+        ConcurrentHistoryManager history = new ConcurrentHistoryManager();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<List<Integer>>> jobs = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            jobs.add(() -> {
+                Random random = new Random(thread);
+                int firstOwnId = SHARED_IDS + thread * IDS_PER_THREAD + 1;
+                // Порядок последних просмотров собственных задач потока
+                LinkedHashSet<Integer> expected = new LinkedHashSet<>();
+                start.await();
+                for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                    if (random.nextBoolean()) {
+                        history.add(task(random.nextInt(SHARED_IDS) + 1));
+                    } else {
+                        int id = firstOwnId + random.nextInt(IDS_PER_THREAD);
+                        history.add(task(id));
+                        expected.remove(id);
+                        expected.add(id);
+                    }
+                }
+                return new ArrayList<>(expected);
+            });
+        }
+
+        List<List<Integer>> expectedPerThread = run(jobs, start);
+        List<Integer> actual = ids(history);
+
+        assertEquals(actual.size(), new HashSet<>(actual).size(), "Каждая задача встречается в истории один раз");
+        assertEquals(SHARED_IDS + THREADS * IDS_PER_THREAD, actual.size(), "Все просмотренные задачи в истории");
+        for (int t = 0; t < THREADS; t++) {
+            int from = SHARED_IDS + t * IDS_PER_THREAD + 1;
+            int to = from + IDS_PER_THREAD;
+            List<Integer> own = actual.stream().filter(id -> id >= from && id < to).toList();
+            assertEquals(expectedPerThread.get(t), own, "Просмотры одного потока идут в порядке вызовов");
+        }
+    }
+
+    @Test
+    void testConcurrentAddAndRemoveStayConsistent() throws Exception {
+        ConcurrentHistoryManager history = new ConcurrentHistoryManager(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<List<Integer>>> jobs = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            jobs.add(() -> {
+                Random random = new Random(100 + thread);
+                start.await();
+                for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                    int id = random.nextInt(200) + 1;
+                    if (random.nextInt(3) == 0) {
+                        history.remove(id);
+                    } else {
+                        history.add(task(id));
+                    }
+                }
+                return List.of();
+            });
+        }
+        run(jobs, start);
+
+        List<Integer> actual = ids(history);
+        assertTrue(actual.size() <= 64, "История не превышает ёмкость");
+        assertEquals(actual.size(), new HashSet<>(actual).size(), "Дубликатов быть не должно");
+    }
+
+    @Test
+    void testCapacityKeepsLatestViews() {
+        ConcurrentHistoryManager history = new ConcurrentHistoryManager(100);
+        for (int id = 1; id <= 1_000; id++) {
+            history.add(task(id));
+        }
+        history.add(task(950));
+
+        List<Integer> actual = ids(history);
+        assertEquals(100, actual.size(), "Хранятся только последние просмотры");
+        assertEquals(901, (int) actual.get(0), "Старые просмотры вытеснены");
+        assertEquals(950, (int) actual.get(99), "Повторный просмотр переносится в конец");
+    }
+
+    private static <T> List<T> run(List<Callable<T>> jobs, CountDownLatch start) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(jobs.size());
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> job : jobs) {
+                futures.add(executor.submit(job));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.tracker.history;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.model.Task;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedHistoryManagerTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    private PartitionedHistoryManager history(int maxPartitions) {
+        return new PartitionedHistoryManager(maxPartitions, Duration.ofNanos(100),
+                () -> new BoundedHistoryManager(10), clock::get);
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Desc");
+        task.setId(id);
+        return task;
+    }
+
+    private static void viewAs(HistoryManager history, String clientId, int taskId) {
+        ClientContext.set(clientId);
+        try {
+            history.add(task(taskId));
+        } finally {
+            ClientContext.clear();
+        }
+    }
+
+    private static List<Integer> historyOf(HistoryManager history, String clientId) {
+        ClientContext.set(clientId);
+        try {
+            return history.getHistory().stream().map(Task::getId).toList();
+        } finally {
+            ClientContext.clear();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClientContext.clear();
+    }
+
+    @Test
+    void testClientsHaveSeparateHistories() {
+        PartitionedHistoryManager history = history(4);
+        viewAs(history, "alice", 1);
+        viewAs(history, "bob", 2);
+        viewAs(history, "alice", 3);
+        history.add(task(4));
+
+        assertEquals(List.of(1, 3), historyOf(history, "alice"), "Клиент видит только свои просмотры");
+        assertEquals(List.of(2), historyOf(history, "bob"), "Клиент видит только свои просмотры");
+        assertEquals(List.of(4), history.getHistory().stream().map(Task::getId).toList(),
+                "Без клиента используется общая история");
+        assertTrue(historyOf(history, "carol").isEmpty(), "У нового клиента история пуста");
+        assertEquals(2, history.getPartitionCount(), "Чтение не создаёт раздел");
+    }
+
+    @Test
+    void testRemoveAffectsAllPartitions() {
+        PartitionedHistoryManager history = history(4);
+        viewAs(history, "alice", 1);
+        viewAs(history, "bob", 1);
+        history.remove(1);
+
+        assertTrue(historyOf(history, "alice").isEmpty(), "Удалённая задача исчезает у всех клиентов");
+        assertTrue(historyOf(history, "bob").isEmpty(), "Удалённая задача исчезает у всех клиентов");
+    }
+
+    @Test
+    void testLeastRecentlyUsedPartitionIsEvicted() {
+        PartitionedHistoryManager history = history(2);
+        viewAs(history, "alice", 1);
+        clock.set(10);
+        viewAs(history, "bob", 2);
+        clock.set(20);
+        viewAs(history, "alice", 3);
+        clock.set(30);
+        viewAs(history, "carol", 4);
+
+        assertEquals(2, history.getPartitionCount(), "Количество разделов ограничено");
+        assertTrue(historyOf(history, "bob").isEmpty(), "Вытесняется давно не использованный раздел");
+        assertEquals(List.of(1, 3), historyOf(history, "alice"), "Активный раздел сохраняется");
+    }
+
+    @Test
+    void testIdlePartitionsAreEvicted() {
+        PartitionedHistoryManager history = history(8);
+        viewAs(history, "alice", 1);
+        history.add(task(2));
+        clock.set(50);
+        viewAs(history, "bob", 3);
+        clock.set(120);
+        history.evictIdle();
+
+        assertEquals(1, history.getPartitionCount(), "Простаивающий раздел удалён");
+        assertTrue(historyOf(history, "alice").isEmpty(), "Простаивающий раздел удалён");
+        assertEquals(List.of(3), historyOf(history, "bob"), "Недавно использованный раздел сохраняется");
+        assertEquals(1, history.getHistory().size(), "Общий раздел не вытесняется");
+    }
+
+    @Test
+    void testIdlePartitionsAreEvictedOnAccess() {
+        PartitionedHistoryManager history = history(8);
+        viewAs(history, "alice", 1);
+        viewAs(history, "bob", 2);
+        clock.set(40);
+        viewAs(history, "bob", 3);
+        clock.set(120);
+        viewAs(history, "bob", 4);
+
+        assertEquals(1, history.getPartitionCount(), "Простаивающий раздел удаляется без явного вызова");
+        assertTrue(historyOf(history, "alice").isEmpty(), "Простаивающий раздел удалён");
+        assertEquals(List.of(2, 3, 4), historyOf(history, "bob"), "Активный раздел сохраняется");
+
+        clock.set(250);
+        assertTrue(historyOf(history, "carol").isEmpty());
+        assertEquals(0, history.getPartitionCount(), "Чтение тоже запускает удаление простаивающих");
+    }
+}
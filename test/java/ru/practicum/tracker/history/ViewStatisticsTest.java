@@ -0,0 +1,129 @@
+package ru.practicum.tracker.history;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.model.Task;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewStatisticsTest {
+
+    private static void view(ViewStatistics statistics, int taskId, int times) {
+        for (int i = 0; i < times; i++) {
+            statistics.record(taskId);
+        }
+    }
+
+    @Test
+    void testCountsAreExactWhileAllTasksFit() {
+        ViewStatistics statistics = new ViewStatistics(64, 1024);
+        view(statistics, 1, 3);
+        view(statistics, 2, 7);
+        view(statistics, 3, 5);
+
+        List<ViewCount> top = statistics.top(2);
+        assertEquals(List.of(new ViewCount(2, 7, 0), new ViewCount(3, 5, 0)), top,
+                "Задачи упорядочены по числу просмотров");
+        assertEquals(3, statistics.estimate(1), "Без коллизий оценка точная");
+        assertEquals(0, statistics.estimate(42), "У непросмотренной задачи нет просмотров");
+    }
+
+    @Test
+    void testHeavyHittersSurviveManyRareTasks() {
+        ViewStatistics statistics = new ViewStatistics(32, 256);
+        for (int id = 1_000; id < 11_000; id++) {
+            statistics.record(id);
+            if (id % 10 == 0) {
+                statistics.record(1);
+                statistics.record(2);
+            }
+        }
+
+        List<ViewCount> top = statistics.top(2);
+        assertEquals(List.of(1, 2), top.stream().map(ViewCount::taskId).sorted().toList(),
+                "Часто просматриваемые задачи не вытесняются редкими");
+        for (ViewCount count : top) {
+            assertTrue(count.views() >= 1_000, "Оценка не меньше истинного числа просмотров");
+            assertTrue(count.views() - count.maxError() <= 1_000, "Истинное значение в пределах погрешности");
+        }
+        assertTrue(statistics.estimate(5_000) >= 1, "Оценка sketch не меньше истинной");
+    }
+
+    @Test
+    void testGuaranteeHoldsAcrossAllTrackedTasks() {
+        ViewStatistics statistics = new ViewStatistics(16, 256, 4);
+        // 8 частых задач по 200 просмотров из N = 1600 + 1000: каждая больше N/16
+        for (int round = 0; round < 200; round++) {
+            for (int id = 1; id <= 8; id++) {
+                statistics.record(id);
+            }
+            for (int i = 0; i < 5; i++) {
+                statistics.record(1_000 + round * 5 + i);
+            }
+        }
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8),
+                statistics.top(8).stream().map(ViewCount::taskId).sorted().toList(),
+                "Все задачи с долей больше 1/trackedTasks должны попасть в результат");
+    }
+
+    @Test
+    void testStripesAreMergedFromConcurrentThreads() throws Exception {
+        ViewStatistics statistics = new ViewStatistics(8, 1024, 4);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = 100 + t * 10_000;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    statistics.record(1);
+                    statistics.record(offset + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        ViewCount top = statistics.top(1).get(0);
+        assertEquals(1, top.taskId(), "Частая задача находится по всем таблицам");
+        assertTrue(top.views() >= 8_000, "Оценка не меньше истинного числа просмотров");
+        assertTrue(top.views() - top.maxError() <= 8_000, "Истинное значение в пределах погрешности");
+        statistics.remove(1);
+        assertNotEquals(1, statistics.top(1).get(0).taskId(), "Удаление убирает задачу из всех таблиц");
+    }
+
+    @Test
+    void testRemovedTaskLeavesTop() {
+        ViewStatistics statistics = new ViewStatistics(16, 64);
+        view(statistics, 1, 5);
+        view(statistics, 2, 3);
+        statistics.remove(1);
+        statistics.remove(99);
+
+        assertEquals(List.of(2), statistics.top(10).stream().map(ViewCount::taskId).toList(),
+                "Удалённая задача не попадает в самые просматриваемые");
+    }
+
+    @Test
+    void testHistoryManagerCountsViews() {
+        HistoryManager history = new ViewCountingHistoryManager(new InMemoryHistoryManager());
+        Task task = new Task("Task", "Desc");
+        task.setId(1);
+        Task other = new Task("Other", "Desc");
+        other.setId(2);
+        history.add(task);
+        history.add(other);
+        history.add(task);
+
+        assertEquals(List.of(2, 1), history.getHistory().stream().map(Task::getId).toList(),
+                "Порядок истории не меняется");
+        assertEquals(new ViewCount(1, 2, 0), history.getMostViewed(1).get(0), "Повторные просмотры учитываются");
+        history.restore(other);
+        assertEquals(new ViewCount(2, 1, 0), history.getMostViewed(2).get(1),
+                "Восстановленный при загрузке просмотр не считается новым");
+        history.remove(1);
+        assertEquals(List.of(new ViewCount(2, 1, 0)), history.getMostViewed(5));
+    }
+}
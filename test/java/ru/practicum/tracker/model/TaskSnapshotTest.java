@@ -0,0 +1,54 @@
+package ru.practicum.tracker.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSnapshotTest {
+
+    @Test
+    void testSnapshotIsSharedUntilModified() {
+        Task task = new Task("Task", "Original");
+        task.setId(1);
+        Task first = task.snapshot();
+
+        assertSame(first, task.snapshot(), "Без изменений снимок переиспользуется");
+        assertSame(first, first.snapshot(), "Снимок снимка — он сам");
+
+        task.setDescription("Modified");
+        Task second = task.snapshot();
+        assertNotSame(first, second, "После изменения снимается новый снимок");
+        assertEquals("Original", first.getDescription(), "Старый снимок не меняется");
+        assertEquals("Modified", second.getDescription());
+    }
+
+    @Test
+    void testSnapshotCannotBeModified() {
+        Subtask subtask = new Subtask("Subtask", "Desc", 5);
+        Task snapshot = subtask.snapshot();
+
+        assertTrue(snapshot instanceof Subtask, "Снимок сохраняет тип задачи");
+        assertEquals(5, ((Subtask) snapshot).getEpicId());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.setName("Other"));
+        assertThrows(UnsupportedOperationException.class, () -> ((Subtask) snapshot).setEpicId(6));
+    }
+
+    @Test
+    void testEpicSnapshotTracksSubtaskChanges() {
+        Epic epic = new Epic("Epic", "Desc");
+        epic.addSubtaskId(2);
+        Epic first = (Epic) epic.snapshot();
+
+        epic.addSubtaskId(2);
+        assertSame(first, epic.snapshot(), "Повторное добавление подзадачи не меняет эпик");
+
+        epic.addSubtaskId(3);
+        Epic second = (Epic) epic.snapshot();
+        assertEquals(List.of(2), first.getSubtaskIds(), "Старый снимок не меняется");
+        assertEquals(List.of(2, 3), second.getSubtaskIds());
+        assertThrows(UnsupportedOperationException.class, () -> second.getSubtaskIds().add(4));
+        assertThrows(UnsupportedOperationException.class, () -> second.removeSubtaskId(2));
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.tracker.model.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.model.*;
+import ru.practicum.tracker.util.GsonUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTypeAdapterFactoryTest {
+    private final Gson gson = GsonUtils.getGson();
+
+    @Test
+    void testRoundTripKeepsAllFields() {
+        Subtask subtask = new Subtask("Subtask", "Desc", TaskStatus.IN_PROGRESS, 7,
+                Duration.ofMinutes(45), LocalDateTime.of(2025, 6, 8, 9, 5));
+        subtask.setId(12);
+        Epic epic = new Epic("Epic", "Desc");
+        epic.setId(7);
+        epic.addSubtaskId(12);
+        epic.setEndTime(LocalDateTime.of(2025, 6, 8, 9, 50));
+
+        Subtask parsedSubtask = gson.fromJson(gson.toJson(subtask), Subtask.class);
+        assertEquals(12, parsedSubtask.getId(), "id должен совпадать");
+        assertEquals(7, parsedSubtask.getEpicId(), "epicId должен совпадать");
+        assertEquals(TaskStatus.IN_PROGRESS, parsedSubtask.getStatus(), "Статус должен совпадать");
+        assertEquals(Duration.ofMinutes(45), parsedSubtask.getDuration(), "Продолжительность должна совпадать");
+        assertEquals(subtask.getStartTime(), parsedSubtask.getStartTime(), "Время начала должно совпадать");
+
+        Epic parsedEpic = gson.fromJson(gson.toJson(epic), Epic.class);
+        assertEquals(List.of(12), parsedEpic.getSubtaskIds(), "Список подзадач должен совпадать");
+        assertEquals(epic.getEndTime(), parsedEpic.getEndTime(), "Время окончания должно совпадать");
+    }
+
+    @Test
+    void testFormatIsCompatibleWithReflectiveGson() {
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .create();
+        Subtask subtask = new Subtask("Subtask", "Desc", TaskStatus.DONE, 3,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 6, 8, 10, 0));
+        subtask.setId(5);
+
+        Subtask fromLegacy = gson.fromJson(reflective.toJson(subtask), Subtask.class);
+        assertEquals(subtask, fromLegacy, "JSON прежнего формата должен читаться");
+        assertEquals(subtask.getStartTime(), fromLegacy.getStartTime(), "Время начала должно совпадать");
+
+        Subtask fromAdapter = reflective.fromJson(gson.toJson(subtask), Subtask.class);
+        assertEquals(subtask, fromAdapter, "Новый JSON должен читаться рефлективным Gson");
+        assertEquals(Duration.ofMinutes(30), fromAdapter.getDuration(), "Продолжительность должна совпадать");
+    }
+
+    @Test
+    void testTypeFieldSelectsClass() {
+        Epic epic = new Epic("Epic", "Desc");
+        epic.setId(1);
+        Subtask subtask = new Subtask("Subtask", "Desc", 1);
+        subtask.setId(2);
+
+        List<Task> parsed = gson.fromJson(gson.toJson(List.of(new Task("Task", "Desc"), epic, subtask)),
+                new TypeToken<List<Task>>() {
+                }.getType());
+        assertEquals(Task.class, parsed.get(0).getClass(), "Задача остаётся задачей");
+        assertEquals(Epic.class, parsed.get(1).getClass(), "Эпик восстанавливается по полю type");
+        assertEquals(1, ((Subtask) parsed.get(2)).getEpicId(), "Подзадача восстанавливается по полю type");
+
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson("{\"type\":\"TASK\"}", Epic.class),
+                "Несовместимый тип должен отклоняться");
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson("{\"type\":\"STORY\"}", Task.class),
+                "Неизвестный тип должен отклоняться");
+    }
+
+    @Test
+    void testEpicSubtaskIdsAreReadInOrderWithoutDuplicates() {
+        Epic epic = gson.fromJson("{\"type\":\"EPIC\",\"subtaskIds\":[3,1,3,2]}", Epic.class);
+        assertEquals(List.of(3, 1, 2), epic.getSubtaskIds(), "Повторы отбрасываются, порядок сохраняется");
+
+        Epic large = new Epic("Epic", "Desc");
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            ids.add(i);
+        }
+        large.setSubtaskIds(ids);
+        assertEquals(ids, gson.fromJson(gson.toJson(large), Epic.class).getSubtaskIds(),
+                "Большой список подзадач читается целиком");
+    }
+
+    @Test
+    void testMissingFieldsKeepDefaults() {
+        Epic epic = gson.fromJson("{\"name\":\"Epic\",\"extra\":[1,{\"a\":2}]}", Epic.class);
+        assertEquals("Epic", epic.getName(), "Название должно читаться");
+        assertEquals("", epic.getDescription(), "Отсутствующее описание берётся из конструктора");
+        assertEquals(TaskStatus.NEW, epic.getStatus(), "Отсутствующий статус берётся из конструктора");
+
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson("{\"id\":\"abc\"}", Task.class),
+                "Некорректное число — ошибка формата");
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson("{\"startTime\":\"вчера\"}", Task.class),
+                "Некорректная дата — ошибка формата");
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.tracker.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.model.Epic;
+import ru.practicum.tracker.model.Subtask;
+import ru.practicum.tracker.model.Task;
+import ru.practicum.tracker.model.TaskStatus;
+import ru.practicum.tracker.util.Managers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 200;
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return (ConcurrentTaskManager) Managers.getConcurrent();
+    }
+
+    @Test
+    void testConcurrentCreationProducesUniqueIds() throws Exception {
+        List<Callable<List<Integer>>> jobs = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            jobs.add(() -> {
+                List<Integer> ids = new ArrayList<>();
+                for (int i = 0; i < PER_THREAD; i++) {
+                    ids.add(manager.createTask(new Task("Task", "Desc")).getId());
+                }
+                return ids;
+            });
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (List<Integer> chunk : runAll(jobs)) {
+            ids.addAll(chunk);
+        }
+        assertEquals(THREADS * PER_THREAD, ids.size(), "Все id должны быть уникальными");
+        assertEquals(THREADS * PER_THREAD, manager.getAllTasks().size(), "Все задачи должны быть сохранены");
+    }
+
+    @Test
+    void testConcurrentSubtasksKeepEpicConsistent() throws Exception {
+        Epic epic = manager.createEpic(new Epic("Epic", "Desc"));
+        LocalDateTime base = LocalDateTime.of(2025, 6, 8, 0, 0);
+        AtomicInteger slot = new AtomicInteger();
+
+        List<Callable<List<Integer>>> jobs = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            jobs.add(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    LocalDateTime start = base.plusMinutes(10L * slot.getAndIncrement());
+                    manager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.DONE, epic.getId(),
+                            Duration.ofMinutes(10), start));
+                }
+                return List.of();
+            });
+        }
+        runAll(jobs);
+
+        int total = THREADS * PER_THREAD;
+        assertEquals(total, manager.getEpicSubtasks(epic.getId()).size(), "Эпик должен содержать все подзадачи");
+        assertEquals(total, manager.getPrioritizedTasks().size(), "Все подзадачи должны попасть в список приоритетов");
+        assertEquals(TaskStatus.DONE, epic.getStatus(), "Статус эпика должен быть пересчитан");
+        assertEquals(Duration.ofMinutes(10L * total), epic.getDuration(), "Продолжительность эпика должна быть суммой");
+        assertEquals(base, epic.getStartTime(), "Начало эпика — самая ранняя подзадача");
+    }
+
+    @Test
+    void testConcurrentConflictingTasksAreRejected() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 8, 10, 0);
+        AtomicInteger conflicts = new AtomicInteger();
+
+        List<Callable<List<Integer>>> jobs = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t + 1;
+            jobs.add(() -> {
+                try {
+                    manager.createTask(new Task("Task", "Desc", Duration.ofMinutes(30), start.plusMinutes(offset)));
+                } catch (ManagerConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+                return List.of();
+            });
+        }
+        runAll(jobs);
+
+        assertEquals(1, manager.getPrioritizedTasks().size(), "Из пересекающихся задач должна сохраниться одна");
+        assertEquals(THREADS - 1, conflicts.get(), "Остальные задачи должны быть отклонены");
+    }
+
+    @Test
+    void testConcurrentUpdateDoesNotResurrectDeletedTask() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 8, 10, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 500; round++) {
+                Task task = manager.createTask(new Task("Task", "Desc", Duration.ofMinutes(5),
+                        start.plusMinutes(10L * round)));
+                Task update = new Task("Updated", "Desc", Duration.ofMinutes(5), task.getStartTime());
+                update.setId(task.getId());
+                CountDownLatch ready = new CountDownLatch(1);
+                Future<?> updater = executor.submit(() -> {
+                    ready.await();
+                    manager.updateTask(update);
+                    return null;
+                });
+                Future<?> deleter = executor.submit(() -> {
+                    ready.await();
+                    manager.deleteTask(task.getId());
+                    return null;
+                });
+                ready.countDown();
+                updater.get();
+                deleter.get();
+
+                assertNull(manager.getTask(task.getId()), "Удалённая задача не должна вернуться после обновления");
+                assertTrue(manager.getPrioritizedTasks().isEmpty(), "Удалённая задача не должна остаться в приоритетах");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> List<T> runAll(List<Callable<T>> jobs) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(jobs)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.tracker.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.model.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordCodecTest {
+    private final CsvRecordCodec codec = new CsvRecordCodec();
+
+    @Test
+    void testRoundTripKeepsAllFields() {
+        Subtask subtask = new Subtask("Subtask", "Desc", TaskStatus.IN_PROGRESS, 7,
+                Duration.ofMinutes(45), LocalDateTime.of(2025, 6, 8, 9, 5));
+        subtask.setId(12);
+
+        String line = codec.format(subtask).toString();
+        assertEquals("12,SUBTASK,Subtask,IN_PROGRESS,Desc,45,2025-06-08 09:05,7", line,
+                "Простые поля записываются без кавычек");
+
+        Subtask parsed = (Subtask) codec.parse(line);
+        assertEquals(12, parsed.getId(), "id должен совпадать");
+        assertEquals(7, parsed.getEpicId(), "epicId должен совпадать");
+        assertEquals(TaskStatus.IN_PROGRESS, parsed.getStatus(), "Статус должен совпадать");
+        assertEquals(Duration.ofMinutes(45), parsed.getDuration(), "Продолжительность должна совпадать");
+        assertEquals(LocalDateTime.of(2025, 6, 8, 9, 5), parsed.getStartTime(), "Время начала должно совпадать");
+    }
+
+    @Test
+    void testWriteAppendsLinesToWriter() throws IOException {
+        Task task = new Task("Task", "Desc", TaskStatus.NEW);
+        task.setId(1);
+        Task longTask = new Task("Длинное название ".repeat(20), "Desc", TaskStatus.DONE);
+        longTask.setId(2);
+
+        StringWriter out = new StringWriter();
+        codec.write(task, out);
+        codec.write(longTask, out);
+
+        String expected = codec.format(task) + "\n";
+        expected += codec.format(longTask) + "\n";
+        assertEquals(expected, out.toString(), "Каждая запись пишется отдельной строкой");
+    }
+
+    @Test
+    void testSpecialCharactersAreQuoted() {
+        Task task = new Task("Купить молоко, хлеб", "Строка 1\nСтрока \"2\"\\ ", TaskStatus.NEW);
+        task.setId(3);
+
+        String line = codec.format(task).toString();
+        assertFalse(line.contains("\n"), "Запись должна занимать одну строку");
+
+        Task parsed = codec.parse(line);
+        assertEquals(task.getName(), parsed.getName(), "Запятая в названии не ломает запись");
+        assertEquals(task.getDescription(), parsed.getDescription(),
+                "Перевод строки, кавычки и обратная косая черта восстанавливаются");
+    }
+
+    @Test
+    void testReadsLegacyUnquotedRecords() {
+        Task task = codec.parse(" 5 , TASK , Task , DONE , Desc , , , ");
+        assertEquals(5, task.getId(), "Пробелы вокруг полей отбрасываются");
+        assertEquals("Task", task.getName(), "Название читается без пробелов");
+        assertEquals(TaskStatus.DONE, task.getStatus(), "Статус должен совпадать");
+        assertNull(task.getStartTime(), "Пустое время начала остаётся null");
+    }
+
+    @Test
+    void testLegacyFieldsStartingWithQuoteAreReadAsIs() {
+        assertEquals("\"Task", codec.parse("1,TASK,\"Task,NEW,Desc,,,").getName(),
+                "Незакрытая кавычка — поле старого формата");
+        assertEquals("\"Срочно\" купить", codec.parse("1,TASK,\"Срочно\" купить,NEW,Desc,,,").getName(),
+                "Кавычка, не завершающая поле, не открывает поле в кавычках");
+        assertEquals("null", codec.parse("1,TASK,null,NEW,null,,,").getName(),
+                "Строка null прежнего формата читается как есть");
+    }
+
+    @Test
+    void testInvalidRecordsAreSkipped() {
+        assertNull(codec.parse("x,TASK,Task,NEW,Desc,,,"), "Некорректный id");
+        assertNull(codec.parse("1,UNKNOWN,Task,NEW,Desc,,,"), "Неизвестный тип");
+        assertNull(codec.parse("1,TASK,Task,NEW,Desc,,2025-13-01 10:00,"), "Некорректная дата");
+        assertNull(codec.parse("1,SUBTASK,Task,NEW,Desc,,,"), "Подзадача без эпика");
+        assertNull(codec.parse("   "), "Пустая строка");
+    }
+
+    @Test
+    void testParsesRangeInsideLargerText() {
+        String text = "P,1,EPIC,Epic,NEW,Desc,,,\nP,2,TASK,Task,NEW,Desc,,,";
+        Task task = codec.parse(text, 2, text.indexOf('\n'));
+        assertTrue(task instanceof Epic, "Разбирается только указанный диапазон");
+        assertEquals("Desc", task.getDescription(), "Поле не захватывает следующую строку");
+    }
+}
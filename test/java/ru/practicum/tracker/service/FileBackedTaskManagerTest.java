@@ -9,6 +9,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -96,4 +100,222 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertDoesNotThrow(manager::save, // Прямой вызов через method reference
                 "Сохранение в корректный файл не должно вызывать исключение");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReadsDoNotRewriteSnapshot() {
+        Task task = manager.createTask(new Task("Task", "Desc"));
+        long snapshotModified = tempFile.lastModified();
+        long snapshotLength = tempFile.length();
+
+        manager.getTask(task.getId());
+
+        assertEquals(snapshotLength, tempFile.length(), "Просмотр не должен перезаписывать снимок");
+        assertEquals(snapshotModified, tempFile.lastModified(), "Просмотр не должен перезаписывать снимок");
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(1, loaded.getHistory().size(), "Просмотр восстанавливается из журнала истории");
+    }
+
+    @Test
+    void testLazyHistoryIsWrittenOnFlush() {
+        StorageConfig config = new StorageConfig();
+        config.setHistoryFlushPolicy(HistoryFlushPolicy.LAZY);
+        FileBackedTaskManager lazy = new FileBackedTaskManager(tempFile, config);
+        Task task = lazy.createTask(new Task("Task", "Desc"));
+        lazy.getTask(task.getId());
+
+        assertTrue(FileBackedTaskManager.loadFromFile(tempFile).getHistory().isEmpty(),
+                "До сброса просмотры остаются в памяти");
+        lazy.flushHistory();
+        assertEquals(1, FileBackedTaskManager.loadFromFile(tempFile).getHistory().size(),
+                "После сброса просмотр сохранён");
+        lazy.close();
+    }
+
+    @Test
+    void testGroupCommitCoalescesSnapshots() {
+        StorageConfig config = new StorageConfig();
+        config.setDurability(Durability.GROUP);
+        FileBackedTaskManager group = new FileBackedTaskManager(tempFile, config);
+        Epic epic = group.createEpic(new Epic("Epic", "Desc"));
+        group.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.DONE, epic.getId()));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(1, loaded.getAllSubtasks().size(), "Снимок должен быть записан до возврата из метода");
+        assertEquals(TaskStatus.DONE, loaded.getEpic(epic.getId()).getStatus(), "Статус эпика восстанавливается");
+        group.close();
+    }
+
+    @Test
+    void testReadsAreSafeDuringConcurrentWrites() throws Exception {
+        StorageConfig config = new StorageConfig();
+        config.setMode(PersistenceMode.JOURNAL);
+        config.setDurability(Durability.ASYNC);
+        FileBackedTaskManager shared = new FileBackedTaskManager(tempFile, config);
+        Epic epic = shared.createEpic(new Epic("Epic", "Desc"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    Task task = shared.createTask(new Task("Task", "Desc"));
+                    shared.createSubtask(new Subtask("Subtask", "Desc", epic.getId()));
+                    shared.getTask(task.getId());
+                    shared.deleteTask(task.getId());
+                }
+            });
+            Future<?> reader = executor.submit(() -> {
+                while (!writer.isDone()) {
+                    shared.getAllTasks();
+                    shared.getAllSubtasks();
+                    shared.getEpicSubtasks(epic.getId());
+                    shared.getPrioritizedTasks();
+                    shared.getHistory();
+                }
+            });
+            writer.get();
+            reader.get();
+        } finally {
+            executor.shutdownNow();
+            shared.close();
+        }
+        assertEquals(2_000, shared.getEpicSubtasks(epic.getId()).size());
+    }
+
+    @Test
+    void testBinarySnapshotRoundTrip() {
+        StorageConfig config = new StorageConfig();
+        config.setSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager binary = new FileBackedTaskManager(tempFile, config);
+        Task task = binary.createTask(new Task("Задача, с запятой", null, TaskStatus.IN_PROGRESS,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 6, 8, 10, 0)));
+        Epic epic = binary.createEpic(new Epic("Epic", "Desc"));
+        binary.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.DONE, epic.getId(),
+                Duration.ofMinutes(45), LocalDateTime.of(2025, 6, 8, 11, 0)));
+        binary.getTask(task.getId());
+        binary.save();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, config);
+        Task loadedTask = loaded.getAllTasks().get(0);
+        assertEquals("Задача, с запятой", loadedTask.getName(), "Название читается без искажений");
+        assertNull(loadedTask.getDescription(), "Пустое описание остаётся null");
+        assertEquals(TaskStatus.IN_PROGRESS, loadedTask.getStatus(), "Статус должен совпадать");
+        assertEquals(LocalDateTime.of(2025, 6, 8, 10, 0), loadedTask.getStartTime(), "Время начала должно совпадать");
+        assertEquals(TaskStatus.DONE, loaded.getEpic(epic.getId()).getStatus(), "Статус эпика восстанавливается");
+        assertEquals(LocalDateTime.of(2025, 6, 8, 11, 45), loaded.getEpic(epic.getId()).getEndTime(),
+                "Время окончания эпика должно совпадать");
+        assertEquals(2, loaded.getPrioritizedTasks().size(), "Индекс расписания восстанавливается");
+        assertEquals(task.getId(), loaded.getHistory().get(0).getId(), "История должна восстанавливаться");
+        binary.close();
+    }
+
+    @Test
+    void testConvertCsvToBinary() throws IOException {
+        Epic epic = manager.createEpic(new Epic("Epic", "Desc"));
+        Subtask subtask = manager.createSubtask(new Subtask("Subtask", "Desc", epic.getId()));
+        manager.getSubtask(subtask.getId());
+        manager.save();
+
+        File binaryFile = Files.createTempFile("tasks", ".bin").toFile();
+        FileBackedTaskManager.convertToBinary(tempFile, binaryFile).close();
+
+        StorageConfig config = new StorageConfig();
+        config.setSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(binaryFile, config);
+        assertEquals(List.of(subtask.getId()), loaded.getEpic(epic.getId()).getSubtaskIds(),
+                "Связь эпика с подзадачами сохраняется");
+        assertEquals(subtask.getId(), loaded.getHistory().get(0).getId(), "История переносится");
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(tempFile, config),
+                "CSV-файл не должен читаться как двоичный");
+    }
+
+    @Test
+    void testParallelLoadMatchesSequentialLoad() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 8, 0, 0);
+        for (int i = 0; i < 300; i++) {
+            manager.createTask(new Task("Task " + i, "Desc", Duration.ofMinutes(10), start.plusMinutes(i * 10L)));
+        }
+        for (int i = 0; i < 20; i++) {
+            Epic epic = manager.createEpic(new Epic("Epic " + i, "Desc"));
+            for (int j = 0; j < 5; j++) {
+                manager.createSubtask(new Subtask("Subtask", "Desc", j % 2 == 0 ? TaskStatus.DONE : TaskStatus.NEW,
+                        epic.getId(), Duration.ofMinutes(5), start.plusDays(5 + i).plusMinutes(j * 5L)));
+            }
+        }
+        manager.getTask(1);
+        manager.getEpic(301);
+
+        StorageConfig config = new StorageConfig();
+        config.setLoadParallelism(4);
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(tempFile, config);
+
+        assertEquals(sequential.getAllTasks().size(), parallel.getAllTasks().size(), "Количество задач должно совпадать");
+        assertEquals(sequential.getAllSubtasks().size(), parallel.getAllSubtasks().size(),
+                "Количество подзадач должно совпадать");
+        assertEquals(sequential.getPrioritizedTasks().stream().map(Task::getId).toList(),
+                parallel.getPrioritizedTasks().stream().map(Task::getId).toList(), "Порядок приоритетов должен совпадать");
+        assertEquals(sequential.getHistory().stream().map(Task::getId).toList(),
+                parallel.getHistory().stream().map(Task::getId).toList(), "История должна совпадать");
+        for (Epic epic : sequential.getAllEpics()) {
+            Epic loaded = parallel.getAllEpics().stream().filter(e -> e.getId() == epic.getId()).findFirst().orElseThrow();
+            assertEquals(epic.getStatus(), loaded.getStatus(), "Статус эпика должен совпадать");
+            assertEquals(epic.getEndTime(), loaded.getEndTime(), "Время окончания эпика должно совпадать");
+        }
+        assertNotNull(parallel.createTask(new Task("New", "Desc")), "Счётчик id восстанавливается");
+        assertTrue(parallel.getLoadReport().getPhases().containsKey(LoadReport.Phase.PARSE),
+                "Время разбора должно попадать в отчёт");
+    }
+
+    @Test
+    void testParallelLoadReadsCrlfLineEndings() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 8, 0, 0);
+        for (int i = 0; i < 50; i++) {
+            manager.createTask(new Task("Task " + i, "Desc", Duration.ofMinutes(10), start.plusMinutes(i * 10L)));
+        }
+        Epic epic = manager.createEpic(new Epic("Epic", "Desc"));
+        manager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.DONE, epic.getId(),
+                Duration.ofMinutes(5), start.plusDays(1)));
+        manager.getTask(1);
+        manager.getEpic(epic.getId());
+        manager.save(); // История целиком в снимке, журнал просмотров пуст
+        String content = Files.readString(tempFile.toPath());
+        Files.writeString(tempFile.toPath(), content.replace("\n", "\r\n"));
+
+        StorageConfig config = new StorageConfig();
+        config.setLoadParallelism(4);
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(tempFile, config);
+
+        assertEquals(51, sequential.getAllTasks().size() + sequential.getAllEpics().size(),
+                "Файл с CRLF читается последовательно");
+        assertEquals(sequential.getAllTasks(), parallel.getAllTasks(), "Задачи должны совпадать");
+        assertEquals(sequential.getAllSubtasks(), parallel.getAllSubtasks(), "Подзадачи должны совпадать");
+        assertEquals(1, parallel.getAllSubtasks().size(), "\\r не попадает в последнее поле строки");
+        assertEquals(epic.getId(), parallel.getAllSubtasks().get(0).getEpicId());
+        assertEquals(TaskStatus.DONE, parallel.getEpic(epic.getId()).getStatus(), "Статус эпика должен совпадать");
+        assertEquals(List.of(1, epic.getId()), sequential.getHistory().stream().map(Task::getId).toList());
+        assertEquals(sequential.getHistory().stream().map(Task::getId).toList(),
+                parallel.getHistory().stream().map(Task::getId).toList(), "История должна совпадать");
+    }
+
+    @Test
+    void testLoadsSnapshotOfPreviousFormat() throws IOException {
+        // Так писал снимок String.format до появления CsvRecordCodec: поля как есть, null — строкой
+        Files.writeString(tempFile.toPath(), String.join("\n",
+                "id,type,name,status,description,duration,startTime,epic",
+                "1,TASK,\"Срочно\" купить,NEW,Молоко \\ хлеб,30,2025-06-08 10:00,",
+                "2,EPIC,null,DONE,null,30,2025-06-08 11:00,",
+                "3,SUBTASK,\"Подзадача,DONE,Desc,30,2025-06-08 11:00,2",
+                "",
+                "1,3"));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(List.of(1, 3), loaded.getHistory().stream().map(Task::getId).toList(), "История читается");
+        assertEquals("\"Срочно\" купить", loaded.getTask(1).getName(), "Кавычки старого формата сохраняются");
+        assertEquals("Молоко \\ хлеб", loaded.getTask(1).getDescription(), "Обратная косая черта без кавычек не разбирается");
+        assertEquals("null", loaded.getEpic(2).getName(), "Строка null читается как есть");
+        assertEquals("\"Подзадача", loaded.getSubtask(3).getName(), "Незакрытая кавычка не ломает запись");
+        assertEquals(List.of(3), loaded.getEpic(2).getSubtaskIds());
+        assertEquals(TaskStatus.DONE, loaded.getEpic(2).getStatus());
+    }
+}
@@ -0,0 +1,172 @@
+package ru.practicum.tracker.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    private File tempFile;
+    private StorageConfig config;
+
+    @Override
+    protected FileBackedTaskManager createTaskManager() {
+        try {
+            tempFile = Files.createTempFile("tasks", ".csv").toFile();
+            config = new StorageConfig();
+            config.setMode(PersistenceMode.JOURNAL);
+            return new FileBackedTaskManager(tempFile, config);
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось создать временный файл", e);
+        }
+    }
+
+    @Test
+    void testMutationsAreReplayedFromJournal() {
+        Task task = manager.createTask(new Task("Task", "Desc"));
+        Epic epic = manager.createEpic(new Epic("Epic", "Desc"));
+        Subtask first = manager.createSubtask(new Subtask("Subtask 1", "Desc", TaskStatus.DONE, epic.getId(),
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 6, 8, 10, 0)));
+        Subtask second = manager.createSubtask(new Subtask("Subtask 2", "Desc", TaskStatus.NEW, epic.getId()));
+        second.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(second);
+        manager.deleteTask(task.getId());
+        manager.getSubtask(first.getId());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, config);
+
+        assertTrue(loaded.getAllTasks().isEmpty(), "Удалённая задача не должна восстановиться");
+        assertEquals(2, loaded.getEpicSubtasks(epic.getId()).size(), "Подзадачи эпика должны восстановиться");
+        assertEquals(TaskStatus.DONE, loaded.getEpic(epic.getId()).getStatus(), "Статус эпика пересчитывается");
+        assertEquals(List.of(first.getId(), epic.getId()),
+                loaded.getHistory().stream().map(Task::getId).toList(), "История восстанавливается из журнала");
+        assertEquals(1, loaded.getPrioritizedTasks().size(), "Список приоритетов восстанавливается");
+    }
+
+    @Test
+    void testJournalIsFoldedIntoSnapshotOnCompaction() {
+        config.setCompactionThreshold(3);
+        for (int i = 0; i < 10; i++) {
+            manager.createTask(new Task("Task " + i, "Desc"));
+        }
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        assertTrue(journalFile.length() < tempFile.length(), "Журнал должен периодически сворачиваться в снимок");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, config);
+        assertEquals(10, loaded.getAllTasks().size(), "После сжатия все задачи должны сохраниться");
+        Task next = loaded.createTask(new Task("Next", "Desc"));
+        assertEquals(11, next.getId(), "Счётчик id продолжается после загрузки");
+    }
+
+    @Test
+    void testFailedCompactionKeepsSnapshotAndJournal() {
+        config.setCompactionThreshold(3);
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(new Task("Task " + i, "Desc"));
+        }
+        // Временный файл снимка занят каталогом, поэтому следующее сжатие не удастся
+        File blocker = new File(tempFile.getPath() + ".tmp");
+        assertTrue(blocker.mkdir());
+        try {
+            assertThrows(ManagerSaveException.class, () -> {
+                for (int i = 5; i < 10; i++) {
+                    manager.createTask(new Task("Task " + i, "Desc"));
+                }
+            }, "Сбой записи снимка должен быть виден вызывающему");
+        } finally {
+            blocker.delete();
+        }
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, config);
+        assertTrue(loaded.getAllTasks().size() >= 5, "Сбой сжатия не должен терять сохранённые задачи");
+    }
+
+    @Test
+    void testConvertToBinaryReplaysJournal() throws IOException {
+        Task first = manager.createTask(new Task("First", "Desc"));
+        Task second = manager.createTask(new Task("Second", "Desc"));
+        manager.deleteTask(first.getId());
+        manager.flush();
+        assertTrue(new File(tempFile.getPath() + ".journal").length() > 0, "Изменения должны остаться в журнале");
+
+        StorageConfig binaryConfig = new StorageConfig();
+        binaryConfig.setSnapshotFormat(SnapshotFormat.BINARY);
+        File withConfig = Files.createTempFile("tasks", ".bin").toFile();
+        FileBackedTaskManager.convertToBinary(tempFile, config, withConfig).close();
+        File detected = Files.createTempFile("tasks", ".bin").toFile();
+        FileBackedTaskManager.convertToBinary(tempFile, detected).close();
+
+        for (File binaryFile : List.of(withConfig, detected)) {
+            FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(binaryFile, binaryConfig);
+            assertEquals(List.of(second.getId()), loaded.getAllTasks().stream().map(Task::getId).toList(),
+                    "Изменения из журнала должны попасть в двоичный снимок");
+        }
+    }
+
+    @Test
+    void testDeletedEpicRemovesSubtasksOnReplay() {
+        Epic epic = manager.createEpic(new Epic("Epic", "Desc"));
+        manager.createSubtask(new Subtask("Subtask", "Desc", epic.getId()));
+        manager.deleteEpic(epic.getId());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, config);
+        assertTrue(loaded.getAllEpics().isEmpty(), "Эпик должен быть удалён");
+        assertTrue(loaded.getAllSubtasks().isEmpty(), "Подзадачи удалённого эпика не должны восстановиться");
+    }
+
+    @Test
+    void testGroupCommitPersistsConcurrentWrites() throws Exception {
+        StorageConfig groupConfig = new StorageConfig();
+        groupConfig.setMode(PersistenceMode.JOURNAL);
+        groupConfig.setDurability(Durability.GROUP);
+        FileBackedTaskManager group = new FileBackedTaskManager(tempFile, groupConfig);
+        group.createEpic(new Epic("Epic", "Desc"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int n = i;
+            futures.add(executor.submit(() -> group.createTask(new Task("Task " + n, "Desc"))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        group.deleteEpics();
+
+        // В режиме GROUP возврат из метода означает, что изменение уже на диске
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, groupConfig);
+        assertEquals(100, loaded.getAllTasks().size(), "Все задачи должны быть зафиксированы");
+        assertTrue(loaded.getAllEpics().isEmpty(), "Удаление эпиков должно быть зафиксировано");
+        loaded.close();
+        group.close();
+    }
+
+    @Test
+    void testAsyncWritesAreVisibleAfterFlush() {
+        StorageConfig asyncConfig = new StorageConfig();
+        asyncConfig.setMode(PersistenceMode.JOURNAL);
+        asyncConfig.setDurability(Durability.ASYNC);
+        FileBackedTaskManager async = new FileBackedTaskManager(tempFile, asyncConfig);
+        for (int i = 0; i < 50; i++) {
+            async.createTask(new Task("Task " + i, "Desc"));
+        }
+        async.flush();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, asyncConfig);
+        assertEquals(50, loaded.getAllTasks().size(), "После flush все изменения должны быть записаны");
+        loaded.close();
+        async.close();
+    }
+}
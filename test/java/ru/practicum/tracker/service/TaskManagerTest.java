@@ -93,6 +93,36 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 "История должна хранить первоначальную версию задачи");
     }
 
+    @Test
+    void testSubtaskMovesBetweenEpics() {
+        Epic source = manager.createEpic(new Epic("Source", "Desc"));
+        Epic target = manager.createEpic(new Epic("Target", "Desc"));
+        LocalDateTime start = LocalDateTime.of(2025, 6, 8, 10, 0);
+        Subtask moving = manager.createSubtask(new Subtask("Moving", "Desc", TaskStatus.DONE, source.getId(),
+                Duration.ofMinutes(30), start));
+        manager.createSubtask(new Subtask("Staying", "Desc", TaskStatus.NEW, source.getId()));
+
+        Subtask moved = new Subtask("Moving", "Desc", TaskStatus.DONE, target.getId(),
+                Duration.ofMinutes(30), start);
+        moved.setId(moving.getId());
+        manager.updateSubtask(moved);
+
+        Epic updatedSource = manager.getEpic(source.getId());
+        Epic updatedTarget = manager.getEpic(target.getId());
+        assertFalse(updatedSource.getSubtaskIds().contains(moving.getId()), "Подзадача уходит из прежнего эпика");
+        assertEquals(TaskStatus.NEW, updatedSource.getStatus(), "Прежний эпик пересчитывается без подзадачи");
+        assertNull(updatedSource.getStartTime(), "Время прежнего эпика пересчитывается без подзадачи");
+        assertEquals(List.of(moving.getId()), updatedTarget.getSubtaskIds(), "Подзадача появляется в новом эпике");
+        assertEquals(TaskStatus.DONE, updatedTarget.getStatus(), "Новый эпик учитывает подзадачу");
+        assertEquals(start, updatedTarget.getStartTime(), "Новый эпик учитывает время подзадачи");
+
+        Subtask orphan = new Subtask("Moving", "Desc", TaskStatus.NEW, 999);
+        orphan.setId(moving.getId());
+        manager.updateSubtask(orphan);
+        assertEquals(target.getId(), manager.getSubtask(moving.getId()).getEpicId(),
+                "Перенос в несуществующий эпик не выполняется");
+    }
+
     @Test
     void testEpicStatusWhenNoSubtasks() {
         Epic epic = manager.createEpic(new Epic("Epic", "Desc"));
@@ -337,4 +367,48 @@ public abstract class TaskManagerTest<T extends TaskManager> {
 
         assertTrue(manager.getHistory().isEmpty(), "История должна быть пустой после удаления всех задач");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEpicTimeFollowsSubtaskUpdatesAndDeletion() {
+        Epic epic = manager.createEpic(new Epic("Epic", "Desc"));
+        LocalDateTime start = LocalDateTime.of(2025, 6, 8, 10, 0);
+        Subtask first = manager.createSubtask(new Subtask("Subtask 1", "Desc", TaskStatus.DONE, epic.getId(),
+                Duration.ofMinutes(30), start));
+        Subtask second = manager.createSubtask(new Subtask("Subtask 2", "Desc", TaskStatus.NEW, epic.getId(),
+                Duration.ofMinutes(60), start.plusHours(2)));
+
+        Subtask moved = new Subtask("Subtask 2", "Desc", TaskStatus.DONE, epic.getId(),
+                Duration.ofMinutes(15), start.plusHours(5));
+        moved.setId(second.getId());
+        manager.updateSubtask(moved);
+
+        assertEquals(TaskStatus.DONE, epic.getStatus(), "Статус эпика должен учитывать обновление подзадачи");
+        assertEquals(Duration.ofMinutes(45), epic.getDuration(), "Продолжительность должна учитывать новое значение");
+        assertEquals(start.plusHours(5).plusMinutes(15), epic.getEndTime(), "Окончание должно сдвинуться");
+
+        manager.deleteSubtask(first.getId());
+        assertEquals(start.plusHours(5), epic.getStartTime(), "Начало должно перейти к оставшейся подзадаче");
+        assertEquals(Duration.ofMinutes(15), epic.getDuration(), "Продолжительность должна уменьшиться");
+    }
+
+    @Test
+    void testVersionTracksModificationsPerCollection() {
+        long initial = manager.getVersion();
+        Task task = manager.createTask(new Task("Task", "Desc"));
+        long afterTask = manager.getVersion(TaskType.TASK);
+        assertTrue(afterTask > initial, "Создание задачи увеличивает версию");
+
+        Epic epic = manager.createEpic(new Epic("Epic", "Desc"));
+        manager.getTask(task.getId());
+        manager.updateTask(new Task("Missing", "Desc"));
+        assertEquals(afterTask, manager.getVersion(TaskType.TASK), "Просмотры и чужие изменения не меняют версию задач");
+
+        long epicsBefore = manager.getVersion(TaskType.EPIC);
+        manager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.DONE, epic.getId()));
+        assertTrue(manager.getVersion(TaskType.EPIC) > epicsBefore, "Подзадача меняет статус эпика");
+        assertEquals(manager.getVersion(), manager.getVersion(TaskType.SUBTASK), "Версия типа равна общей версии");
+
+        manager.deleteTasks();
+        assertTrue(manager.getVersion(TaskType.TASK) > afterTask, "Удаление задач увеличивает версию");
+    }
+}
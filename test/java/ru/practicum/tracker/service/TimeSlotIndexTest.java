@@ -0,0 +1,101 @@
+package ru.practicum.tracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSlotIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 8, 10, 0);
+
+    private TimeSlotIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TimeSlotIndex();
+    }
+
+    @Test
+    void testOverlapWithPreviousTask() {
+        index.add(task(1, 0, 60));
+        assertTrue(index.hasConflict(task(2, 30, 30)), "Начало внутри предыдущей задачи — пересечение");
+        assertFalse(index.hasConflict(task(2, 60, 30)), "Начало ровно в момент окончания — не пересечение");
+    }
+
+    @Test
+    void testOverlapWithFollowingTask() {
+        index.add(task(1, 60, 30));
+        assertTrue(index.hasConflict(task(2, 30, 31)), "Окончание внутри следующей задачи — пересечение");
+        assertFalse(index.hasConflict(task(2, 30, 30)), "Окончание ровно в момент начала — не пересечение");
+    }
+
+    @Test
+    void testSameStartIsAllowed() {
+        index.add(task(1, 0, 60));
+        assertFalse(index.hasConflict(task(2, 0, 120)), "Задачи с одинаковым началом допускаются");
+    }
+
+    @Test
+    void testSameStartGroupUsesLongestTask() {
+        index.add(task(1, 0, 10));
+        index.add(task(2, 0, 90));
+        assertTrue(index.hasConflict(task(3, 60, 10)), "Учитывается самая длинная задача в группе");
+    }
+
+    @Test
+    void testTaskDoesNotConflictWithItself() {
+        Task task = task(1, 0, 60);
+        index.add(task);
+        assertFalse(index.hasConflict(task(1, 30, 60)), "Задача не должна пересекаться сама с собой");
+    }
+
+    @Test
+    void testTasksWithoutDurationAreSkipped() {
+        Task undated = new Task("No duration", "Desc", null, BASE.plusMinutes(30));
+        undated.setId(1);
+        index.add(undated);
+        assertFalse(index.hasConflict(task(2, 0, 60)), "Задачи без продолжительности не пересекаются");
+    }
+
+    @Test
+    void testRemoveUsesIndexedInterval() {
+        Task task = task(1, 0, 60);
+        index.add(task);
+        task.setStartTime(BASE.plusDays(1));
+        index.remove(1);
+        assertEquals(0, index.size(), "Удаление по id не зависит от текущих полей задачи");
+        assertFalse(index.hasConflict(task(2, 0, 60)), "После удаления пересечений нет");
+    }
+
+    @Test
+    void testOrderByStartThenId() {
+        index.add(task(3, 60, 10));
+        index.add(task(2, 0, 10));
+        index.add(task(1, 0, 5));
+        List<Task> ordered = index.toList();
+        assertEquals(List.of(1, 2, 3), ordered.stream().map(Task::getId).toList(), "Порядок: время начала, затем id");
+    }
+
+    @Test
+    void testAddAllMatchesSequentialAdd() {
+        List<Task> source = List.of(task(4, 90, 10), task(2, 0, 10), task(3, 0, 30), task(1, 60, 10));
+        TimeSlotIndex sequential = new TimeSlotIndex();
+        source.forEach(sequential::add);
+        index.addAll(source);
+        assertEquals(sequential.toList(), index.toList(), "Пакетное построение даёт тот же порядок");
+        assertTrue(index.hasConflict(task(5, 20, 5)), "Пересечения ищутся и после пакетного построения");
+        index.remove(3);
+        assertFalse(index.hasConflict(task(5, 20, 5)), "Удаление работает после пакетного построения");
+    }
+
+    private static Task task(int id, int startOffset, int minutes) {
+        Task task = new Task("Task " + id, "Desc", Duration.ofMinutes(minutes), BASE.plusMinutes(startOffset));
+        task.setId(id);
+        return task;
+    }
+}
@@ -4,20 +4,34 @@ import com.google.gson.Gson;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.practicum.tracker.history.PartitionedHistoryManager;
+import ru.practicum.tracker.history.ViewCount;
 import ru.practicum.tracker.model.Epic;
 import ru.practicum.tracker.model.Subtask;
 import ru.practicum.tracker.model.Task;
 import ru.practicum.tracker.service.InMemoryTaskManager;
 import ru.practicum.tracker.service.TaskManager;
 import ru.practicum.tracker.util.GsonUtils;
+import ru.practicum.tracker.util.Managers;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -273,6 +287,75 @@ class HttpTaskServerTasksTest {
         assertFalse(manager.getAllTasks().isEmpty());
     }
 
+    // Тест потоковой выдачи большого списка задач
+    @Test
+    void testGetAllTasksStreamsLargeList() throws IOException, InterruptedException {
+        for (int i = 0; i < 2_000; i++) {
+            manager.createTask(new Task("Task " + i, "Описание задачи " + i));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(null),
+                "Список должен передаваться частями");
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(2_000, tasks.length);
+        assertEquals("Описание задачи 1999", tasks[1_999].getDescription());
+    }
+
+    // Тест условного GET: без изменений сервер отвечает 304
+    @Test
+    void testConditionalGetReturnsNotModified() throws IOException, InterruptedException {
+        manager.createTask(new Task("Task1", "Desc"));
+        HttpResponse<String> first = client.send(HttpRequest.newBuilder().uri(URI.create(baseUrl)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl))
+                .header("If-None-Match", etag)
+                .GET()
+                .build();
+        HttpResponse<String> unchanged = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, unchanged.statusCode(), "Без изменений должен вернуться 304");
+        assertTrue(unchanged.body().isEmpty(), "Ответ 304 не содержит тела");
+
+        manager.createEpic(new Epic("Epic", "Desc"));
+        assertEquals(304, client.send(conditional, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Изменение эпиков не затрагивает список задач");
+
+        manager.createTask(new Task("Task2", "Desc"));
+        HttpResponse<String> changed = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, changed.statusCode(), "После изменения возвращается новый список");
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow(), "ETag должен измениться");
+        assertEquals(2, gson.fromJson(changed.body(), Task[].class).length);
+    }
+
+    // Тест кэша ответа: повторный запрос отдаётся готовым телом, изменение сбрасывает кэш
+    @Test
+    void testListResponseIsCachedUntilModified() throws IOException, InterruptedException {
+        manager.createTask(new Task("Task1", "Desc"));
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(baseUrl)).GET().build();
+
+        HttpResponse<String> first = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> second = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals("chunked", first.headers().firstValue("Transfer-Encoding").orElse(null),
+                "Первый ответ выдаётся потоком");
+        assertTrue(second.headers().firstValue("Content-Length").isPresent(), "Повторный ответ берётся из кэша");
+        assertEquals(first.body(), second.body(), "Тело из кэша совпадает с исходным");
+
+        manager.createTask(new Task("Task2", "Desc"));
+        HttpResponse<String> changed = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals("chunked", changed.headers().firstValue("Transfer-Encoding").orElse(null),
+                "После изменения список строится заново");
+        assertEquals(2, gson.fromJson(changed.body(), Task[].class).length);
+    }
+
     // Тест создания задачи с конфликтом времени выполнения
     @Test
     void testCreateTaskWithTimeConflict() throws IOException, InterruptedException {
@@ -588,6 +671,85 @@ class HttpTaskServerHistoryTest {
         assertTrue(response.body().contains(task.getName()));
     }
 
+    // Тест потоковой выдачи: элементы пишутся по фактическому типу
+    @Test
+    void testHistoryKeepsSubtaskFields() throws IOException, InterruptedException {
+        Epic epic = manager.createEpic(new Epic("Epic", "Desc"));
+        Subtask subtask = manager.createSubtask(new Subtask("Subtask", "Desc", epic.getId()));
+        manager.getSubtask(subtask.getId());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(gson.toJson(manager.getHistory()), response.body(), "Ответ совпадает с сериализацией списка");
+        Subtask[] history = gson.fromJson(response.body(), Subtask[].class);
+        assertEquals(epic.getId(), history[0].getEpicId(), "Поле подзадачи должно попасть в ответ");
+    }
+
+    // Тест раздельной истории: каждый клиент видит только свои просмотры
+    @Test
+    void testHistoryIsPartitionedByClient() throws IOException, InterruptedException {
+        server.stop();
+        manager = new InMemoryTaskManager(new PartitionedHistoryManager(16, 100, Duration.ofMinutes(5)));
+        server = new HttpTaskServer(manager);
+        server.start();
+        Task first = manager.createTask(new Task("First", "Desc"));
+        Task second = manager.createTask(new Task("Second", "Desc"));
+
+        viewAs("alice", "http://localhost:8080/tasks/" + first.getId());
+        viewAs("bob", "http://localhost:8080/tasks/" + second.getId());
+
+        Task[] alice = gson.fromJson(viewAs("alice", baseUrl).body(), Task[].class);
+        Task[] bob = gson.fromJson(viewAs("bob", baseUrl).body(), Task[].class);
+        Task[] anonymous = gson.fromJson(client.send(HttpRequest.newBuilder().uri(URI.create(baseUrl)).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body(), Task[].class);
+        assertEquals(1, alice.length);
+        assertEquals(first.getId(), alice[0].getId(), "Клиент видит свой просмотр");
+        assertEquals(second.getId(), bob[0].getId(), "Клиент видит свой просмотр");
+        assertEquals(0, anonymous.length, "Просмотры клиентов не попадают в общую историю");
+        assertEquals(400, viewAs("bad id", baseUrl).statusCode(), "Некорректный идентификатор отклоняется");
+    }
+
+    private HttpResponse<String> viewAs(String clientId, String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("X-Client-Id", clientId)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Тест самых просматриваемых задач
+    @Test
+    void testGetMostViewed() throws IOException, InterruptedException {
+        server.stop();
+        manager = new InMemoryTaskManager(Managers.withViewStatistics(Managers.getDefaultHistory()));
+        server = new HttpTaskServer(manager);
+        server.start();
+        Task rare = manager.createTask(new Task("Rare", "Desc"));
+        Task popular = manager.createTask(new Task("Popular", "Desc"));
+        manager.getTask(rare.getId());
+        for (int i = 0; i < 3; i++) {
+            manager.getTask(popular.getId());
+        }
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/top?limit=1")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        ViewCount[] top = gson.fromJson(response.body(), ViewCount[].class);
+        assertEquals(1, top.length, "Учитывается параметр limit");
+        assertEquals(popular.getId(), top[0].taskId());
+        assertEquals(3, top[0].views());
+
+        HttpResponse<String> invalid = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/top?limit=abc")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, invalid.statusCode(), "Некорректный limit отклоняется");
+    }
+
     // Тест получения пустой истории
     @Test
     void testEmptyHistory() throws IOException, InterruptedException {
@@ -726,4 +888,245 @@ class HttpTaskServerIntegrationTest {
         assertEquals(200, historyResponse.statusCode(), "Не удалось получить историю");
         assertTrue(historyResponse.body().contains("Subtask"), "Подзадача должна быть в истории после просмотра");
     }
-}
\ No newline at end of file
+}
+// Тесты настроек сервера: порт, тип исполнителя и параллельная обработка запросов
+class HttpTaskServerConfigTest {
+    private HttpTaskServer server;
+    private HttpClient client;
+    private final Gson gson = GsonUtils.getGson();
+
+    @BeforeEach
+    void setUp() {
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testServerListensOnConfiguredPort() throws IOException, InterruptedException {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        server = new HttpTaskServer(new InMemoryTaskManager(), config);
+        server.start();
+
+        assertNotEquals(0, server.getPort(), "Должен быть выбран свободный порт");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                .GET()
+                .build();
+        assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void testConcurrentRequestsOnVirtualThreads() throws IOException {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setExecutorType(ExecutorType.VIRTUAL);
+        server = new HttpTaskServer(Managers.getConcurrent(), config);
+        server.start();
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(new Task("Task " + i, "Desc"))))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            HttpResponse<String> result = response.join();
+            assertEquals(201, result.statusCode(), "Все задачи должны быть созданы");
+            ids.add(gson.fromJson(result.body(), Task.class).getId());
+        }
+        assertEquals(50, ids.size(), "Идентификаторы не должны повторяться");
+        assertEquals(50, server.getManager().getAllTasks().size(), "Все задачи должны попасть в менеджер");
+    }
+
+    @Test
+    void testSaturatedReadsAreShedWithRetryAfter() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TaskManager blocking = new InMemoryTaskManager() {
+            @Override
+            public List<Task> getAllTasks() {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getAllTasks();
+            }
+        };
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setExecutorType(ExecutorType.VIRTUAL);
+        config.setReadMaxInFlight(1);
+        config.setReadMaxQueued(0);
+        config.setWriteMaxInFlight(1);
+        config.setRetryAfterSeconds(3);
+        server = new HttpTaskServer(blocking, config);
+        server.start();
+        String url = "http://localhost:" + server.getPort();
+
+        CompletableFuture<HttpResponse<String>> slow = client.sendAsync(
+                HttpRequest.newBuilder().uri(URI.create(url + "/tasks")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertTrue(entered.await(5, TimeUnit.SECONDS), "Первый запрос должен начать обработку");
+
+        HttpResponse<String> shed = client.send(HttpRequest.newBuilder().uri(URI.create(url + "/history")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(503, shed.statusCode(), "Чтение сверх лимита должно отклоняться");
+        assertEquals("3", shed.headers().firstValue("Retry-After").orElse(null), "Нужен заголовок Retry-After");
+
+        HttpResponse<String> write = client.send(HttpRequest.newBuilder().uri(URI.create(url + "/tasks"))
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(new Task("Task", "Desc")))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, write.statusCode(), "Лимит изменений не зависит от лимита чтений");
+
+        release.countDown();
+        assertEquals(200, slow.join().statusCode(), "Принятый запрос должен завершиться");
+        assertEquals(1, server.getAdmissionFilter().getRejectedCount(), "Отклонён ровно один запрос");
+    }
+
+    @Test
+    void testOversizedBodyIsRejected() throws IOException, InterruptedException {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setMaxRequestBodyBytes(256);
+        server = new HttpTaskServer(new InMemoryTaskManager(), config);
+        server.start();
+        URI uri = URI.create("http://localhost:" + server.getPort() + "/tasks");
+
+        Task small = new Task("Task", "Desc");
+        HttpResponse<String> accepted = client.send(HttpRequest.newBuilder().uri(uri)
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(small))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, accepted.statusCode(), "Небольшое тело должно приниматься");
+
+        Task large = new Task("Task", "x".repeat(1_000));
+        HttpResponse<String> rejected = client.send(HttpRequest.newBuilder().uri(uri)
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(large))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(413, rejected.statusCode(), "Тело больше лимита должно отклоняться");
+
+        // Без Content-Length размер проверяется при чтении
+        HttpResponse<String> streamed = client.send(HttpRequest.newBuilder().uri(uri)
+                        .POST(HttpRequest.BodyPublishers.ofInputStream(
+                                () -> new ByteArrayInputStream(gson.toJson(large).getBytes(StandardCharsets.UTF_8))))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(413, streamed.statusCode(), "Лимит действует и для chunked-тела");
+        assertEquals(1, server.getManager().getAllTasks().size(), "Отклонённые задачи не создаются");
+    }
+
+    @Test
+    void testLargeResponsesAreGzippedOnRequest() throws IOException, InterruptedException {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        TaskManager manager = new InMemoryTaskManager();
+        server = new HttpTaskServer(manager, config);
+        server.start();
+        Task small = manager.createTask(new Task("Task", "Desc"));
+        for (int i = 0; i < 200; i++) {
+            manager.createTask(new Task("Task " + i, "Повторяющееся описание задачи"));
+        }
+        String baseUrl = "http://localhost:" + server.getPort() + "/tasks";
+        HttpRequest gzipRequest = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+
+        String plain = client.send(HttpRequest.newBuilder().uri(URI.create(baseUrl)).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        for (int i = 0; i < 2; i++) {
+            // Первый ответ сжимается потоком, второй берётся из кэша
+            HttpResponse<byte[]> compressed = client.send(gzipRequest, HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals("gzip", compressed.headers().firstValue("Content-Encoding").orElse(null),
+                    "Большой список должен сжиматься");
+            assertTrue(compressed.body().length < plain.length() / 2, "Сжатый ответ должен быть заметно меньше");
+            try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.body()))) {
+                assertEquals(plain, new String(input.readAllBytes(), StandardCharsets.UTF_8),
+                        "После распаковки тело должно совпадать с несжатым");
+            }
+        }
+
+        HttpResponse<String> smallResponse = client.send(HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/" + small.getId()))
+                        .header("Accept-Encoding", "gzip")
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertTrue(smallResponse.headers().firstValue("Content-Encoding").isEmpty(),
+                "Ответ меньше порога не сжимается");
+        assertEquals(2, server.getCompressionStats().getCompressedResponses(), "Учитываются только сжатые ответы");
+        assertTrue(server.getCompressionStats().getCompressionRatio() < 0.5, "Степень сжатия должна учитываться");
+    }
+
+    @Test
+    void testTrailingDataIsBadRequest() throws IOException, InterruptedException {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        server = new HttpTaskServer(new InMemoryTaskManager(), config);
+        server.start();
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Task\"} {}")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Лишние данные после JSON — ошибка формата");
+    }
+
+    @Test
+    void testFailureAfterHeadersAbortsResponse() throws IOException, InterruptedException {
+        TaskManager failing = new InMemoryTaskManager() {
+            @Override
+            public List<Task> getAllTasks() {
+                List<Task> tasks = super.getAllTasks();
+                // Сбой посреди выдачи: первый элемент уже записан в ответ
+                return new AbstractList<>() {
+                    @Override
+                    public Task get(int index) {
+                        if (index > 0) {
+                            throw new IllegalStateException("Сбой чтения задач");
+                        }
+                        return tasks.get(index);
+                    }
+
+                    @Override
+                    public int size() {
+                        return 2;
+                    }
+                };
+            }
+        };
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        server = new HttpTaskServer(failing, config);
+        server.start();
+        failing.createTask(new Task("Task", "Desc"));
+        String url = "http://localhost:" + server.getPort() + "/tasks";
+
+        assertThrows(IOException.class, () -> client.send(HttpRequest.newBuilder().uri(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofString()), "Начатый ответ обрывается, а не выдаётся обрезанным");
+
+        HttpResponse<String> buffered = client.send(HttpRequest.newBuilder().uri(URI.create(url))
+                .header("Accept-Encoding", "gzip").GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(500, buffered.statusCode(), "Пока ответ не перерос порог сжатия, отправляется 500");
+    }
+
+    @Test
+    void testInvalidConfigIsRejected() {
+        ServerConfig config = new ServerConfig();
+        assertThrows(IllegalArgumentException.class, () -> config.setPort(70_000), "Порт вне диапазона");
+        assertThrows(IllegalArgumentException.class, () -> config.setPoolSize(0), "Пустой пул");
+    }
+}